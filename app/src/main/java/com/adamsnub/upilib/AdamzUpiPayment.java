@@ -5,63 +5,78 @@ import android.content.Intent;
 import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
-import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.Lifecycle;
-import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
-import androidx.lifecycle.OnLifecycleEvent;
 
 import com.adamsnub.upilib.detector.UpiAppDetector;
 import com.adamsnub.upilib.exception.AppNotFoundException;
+import com.adamsnub.upilib.launcher.PaymentListenerRegistry;
 import com.adamsnub.upilib.launcher.PaymentStatusListener;
+import com.adamsnub.upilib.models.Money;
 import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.PaymentRequestParcel;
+import com.adamsnub.upilib.models.UpiApp;
 import com.adamsnub.upilib.ui.PaymentActivity;
+import com.adamsnub.upilib.utils.UpiCallback;
+import com.adamsnub.upilib.validation.UpiValidator;
+import com.adamsnub.upilib.validation.ValidationResult;
+
+import java.util.List;
 
 public class AdamzUpiPayment {
 
     private final Activity activity;
     private final PaymentRequest paymentRequest;
-    private LifecycleObserver lifecycleObserver;
     private static final String TAG = "AdamzUpiPayment";
 
     private AdamzUpiPayment(Activity activity, PaymentRequest paymentRequest) {
         this.activity = activity;
         this.paymentRequest = paymentRequest;
-
-        if (activity instanceof AppCompatActivity) {
-            lifecycleObserver = new LifecycleObserver() {
-                @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
-                public void onDestroy() {
-                    Log.d(TAG, "Activity destroyed - clearing listener");
-                    Singleton.clearListener();
-                }
-            };
-            ((AppCompatActivity) activity).getLifecycle().addObserver(lifecycleObserver);
-        }
     }
 
     public void startPayment() {
         UpiAppDetector detector = new UpiAppDetector(activity);
 
-        if (!detector.hasAnyUpiApp()) {
-            Log.d(TAG, "No UPI apps found - triggering onAppNotFound");
-            if (Singleton.getListener() != null) {
-                Singleton.getListener().onAppNotFound();
-            }
-            return;
-        }
+        // Detect apps in the background so starting a payment never blocks a frame
+        detector.getInstalledUpiApps(new UpiCallback<List<UpiApp>>() {
+            @Override
+            public void onComplete(List<UpiApp> apps, Exception error) {
+                if (error != null || apps.isEmpty()) {
+                    Log.d(TAG, "No UPI apps found - triggering onAppNotFound");
+                    PaymentStatusListener listener =
+                            PaymentListenerRegistry.get(paymentRequest.getTransactionRef());
+                    if (listener != null) {
+                        listener.onAppNotFound();
+                    }
+                    return;
+                }
+
+                if (activity.isFinishing()) {
+                    return;
+                }
 
-        Intent intent = new Intent(activity, PaymentActivity.class);
-        intent.putExtra("payment_request", paymentRequest);
-        activity.startActivity(intent);
+                Intent intent = new Intent(activity, PaymentActivity.class);
+                intent.putExtra("payment_request", new PaymentRequestParcel(paymentRequest));
+                activity.startActivity(intent);
+            }
+        });
     }
 
+    /**
+     * Listen for this payment's result; the registration ends when the activity is destroyed.
+     * Passing null removes the listener.
+     */
     public void setPaymentStatusListener(PaymentStatusListener listener) {
-        Singleton.setListener(listener);
+        if (listener == null) {
+            removePaymentStatusListener();
+            return;
+        }
+        // Results are routed by transactionRef only, so they never reach another screen's listener
+        LifecycleOwner owner = activity instanceof LifecycleOwner ? (LifecycleOwner) activity : null;
+        PaymentListenerRegistry.register(paymentRequest.getTransactionRef(), listener, owner);
     }
 
     public void removePaymentStatusListener() {
-        Singleton.clearListener();
+        PaymentListenerRegistry.remove(paymentRequest.getTransactionRef());
     }
 
     public static class Builder {
@@ -94,6 +109,11 @@ public class AdamzUpiPayment {
             return this;
         }
 
+        public Builder setAmount(Money amount) {
+            this.amount = amount != null ? amount.toString() : null;
+            return this;
+        }
+
         public Builder setTransactionRef(String ref) {
             this.transactionRef = ref;
             return this;
@@ -151,27 +171,21 @@ public class AdamzUpiPayment {
         }
 
         private void validate() {
-            if (payeeVpa == null || payeeVpa.trim().isEmpty()) {
-                throw new IllegalStateException("Must call setPayeeVpa() before build()");
-            }
-            if (!payeeVpa.matches("^[\\w.-]+@[\\w-]+$")) {
-                throw new IllegalStateException("Invalid VPA format");
-            }
-
-            if (payeeName == null || payeeName.trim().isEmpty()) {
-                throw new IllegalStateException("Must call setPayeeName() before build()");
-            }
-
-            if (amount == null || amount.trim().isEmpty()) {
-                throw new IllegalStateException("Must call setAmount() before build()");
-            }
-            if (!amount.matches("\\d+(\\.\\d{1,2})?")) {
-                throw new IllegalStateException("Amount must be valid decimal (e.g., 100.00)");
-            }
-
-            if (transactionRef == null || transactionRef.trim().isEmpty()) {
-                throw new IllegalStateException("Must call setTransactionRef() before build()");
+            ValidationResult result = UpiValidator.validate(payeeVpa, payeeName, amount, transactionRef);
+            switch (result) {
+                case VALID:
+                    return;
+                case MISSING_VPA:
+                    throw new IllegalStateException("Must call setPayeeVpa() before build()");
+                case MISSING_PAYEE_NAME:
+                    throw new IllegalStateException("Must call setPayeeName() before build()");
+                case MISSING_AMOUNT:
+                    throw new IllegalStateException("Must call setAmount() before build()");
+                case MISSING_TRANSACTION_REF:
+                    throw new IllegalStateException("Must call setTransactionRef() before build()");
+                default:
+                    throw new IllegalStateException(result.getMessage());
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,66 +1,59 @@
 package com.adamsnub.upilib.detector;
 
 import android.content.Context;
-import android.content.Intent;
-import android.content.pm.PackageManager;
-import android.content.pm.ResolveInfo;
-import android.net.Uri;
-import android.graphics.drawable.Drawable;
 
 import com.adamsnub.upilib.models.UpiApp;
+import com.adamsnub.upilib.utils.UpiCallback;
+import com.adamsnub.upilib.utils.UpiFuture;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class UpiAppDetector {
-    private final Context context;
+    private final UpiAppRegistry registry;
     
     public UpiAppDetector(Context context) {
-        this.context = context.getApplicationContext();
+        this.registry = UpiAppRegistry.getInstance(context);
     }
     
     /**
      * Get list of all installed UPI apps on the device
      */
     public List<UpiApp> getInstalledUpiApps() {
-        List<UpiApp> upiApps = new ArrayList<>();
-        PackageManager packageManager = context.getPackageManager();
-        
-        // Create intent to find apps that handle UPI payments
-        Intent upiIntent = new Intent(Intent.ACTION_VIEW);
-        upiIntent.setData(Uri.parse("upi://pay"));
-        
-        // Query for apps that can handle this intent
-        List<ResolveInfo> resolveInfos = packageManager.queryIntentActivities(upiIntent, 0);
-        
-        for (ResolveInfo resolveInfo : resolveInfos) {
-            String packageName = resolveInfo.activityInfo.packageName;
-            String appName = resolveInfo.loadLabel(packageManager).toString();
-            Drawable icon = resolveInfo.loadIcon(packageManager);
-            
-            UpiApp upiApp = new UpiApp(appName, packageName, icon);
-            upiApps.add(upiApp);
-        }
-        
-        return upiApps;
+        return registry.getApps();
     }
     
+    /**
+     * Get list of installed UPI apps on a background thread
+     */
+    public UpiFuture<List<UpiApp>> getInstalledUpiAppsAsync() {
+        return registry.getAppsAsync();
+    }
+
+    /**
+     * Deliver the installed UPI apps to the callback on the main thread
+     */
+    public void getInstalledUpiApps(UpiCallback<List<UpiApp>> callback) {
+        registry.getAppsAsync().whenCompleteOnMain(callback);
+    }
+
+    /**
+     * Warm the app cache in the background so later lookups don't block
+     */
+    public void preload() {
+        registry.getAppsAsync();
+    }
+
     /**
      * Check if any UPI app is installed
      */
     public boolean hasAnyUpiApp() {
-        return !getInstalledUpiApps().isEmpty();
+        return registry.hasAnyApp();
     }
     
     /**
      * Check if a specific UPI app is installed
      */
     public boolean isUpiAppInstalled(String packageName) {
-        try {
-            context.getPackageManager().getPackageInfo(packageName, 0);
-            return true;
-        } catch (PackageManager.NameNotFoundException e) {
-            return false;
-        }
+        return registry.contains(packageName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.adamsnub.upilib.detector;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+import android.util.Log;
+
+import com.adamsnub.upilib.metrics.UpiMetrics;
+import com.adamsnub.upilib.models.UpiApp;
+import com.adamsnub.upilib.utils.UpiAppIconCache;
+import com.adamsnub.upilib.utils.UpiExecutors;
+import com.adamsnub.upilib.utils.UpiFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Process-wide cache of installed UPI apps.
+ *
+ * The app list is built from PackageManager once and kept until a package is
+ * added, removed or replaced, so repeated detection calls are memory lookups.
+ */
+public class UpiAppRegistry {
+    private static final String TAG = "UpiAppRegistry";
+    private static volatile UpiAppRegistry instance;
+
+    private final Context context;
+    private final Object lock = new Object();
+    // Guarded by lock; invalidate() bumps generation so a load that started before it is not cached
+    private Snapshot snapshot;
+    private int generation;
+
+    private UpiAppRegistry(Context context) {
+        this.context = context.getApplicationContext();
+        registerPackageReceiver();
+    }
+
+    public static UpiAppRegistry getInstance(Context context) {
+        UpiAppRegistry registry = instance;
+        if (registry == null) {
+            synchronized (UpiAppRegistry.class) {
+                registry = instance;
+                if (registry == null) {
+                    registry = new UpiAppRegistry(context);
+                    instance = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Get the cached list of installed UPI apps, loading it on first use
+     */
+    public List<UpiApp> getApps() {
+        return loaded().apps;
+    }
+
+    /**
+     * Get the app list without touching PackageManager on the calling thread.
+     * Completes immediately when the list is already cached.
+     */
+    public UpiFuture<List<UpiApp>> getAppsAsync() {
+        synchronized (lock) {
+            if (snapshot != null) {
+                return UpiFuture.completed(snapshot.apps);
+            }
+        }
+        return UpiFuture.submit(UpiExecutors.background(), new Callable<List<UpiApp>>() {
+            @Override
+            public List<UpiApp> call() {
+                return getApps();
+            }
+        });
+    }
+
+    /**
+     * Check if any UPI app is installed
+     */
+    public boolean hasAnyApp() {
+        return !getApps().isEmpty();
+    }
+
+    /**
+     * Check if a package that handles upi:// intents is installed
+     */
+    public boolean contains(String packageName) {
+        if (packageName == null) return false;
+        return loaded().appsByPackage.containsKey(packageName);
+    }
+
+    /**
+     * Drop the cached list so the next lookup queries PackageManager again
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            snapshot = null;
+            generation++;
+        }
+    }
+
+    /**
+     * The cached apps, or a fresh load. PackageManager is queried without holding the
+     * lock, so a lookup on the main thread never waits for a load running in the
+     * background. The result is cached only if no invalidate() happened meanwhile.
+     */
+    private Snapshot loaded() {
+        int loadGeneration;
+        synchronized (lock) {
+            if (snapshot != null) return snapshot;
+            loadGeneration = generation;
+        }
+
+        long start = UpiMetrics.start();
+        List<UpiApp> loaded = queryUpiApps();
+        UpiMetrics.stop(UpiMetrics.DETECT_APPS, null, start);
+        Map<String, UpiApp> byPackage = new HashMap<>();
+        for (UpiApp app : loaded) {
+            byPackage.put(app.getPackageName(), app);
+        }
+        Snapshot result = new Snapshot(Collections.unmodifiableList(loaded), byPackage);
+        Log.d(TAG, "Loaded " + loaded.size() + " UPI apps");
+
+        synchronized (lock) {
+            if (generation == loadGeneration) {
+                // Another load may have finished first; keep one list for everyone
+                if (snapshot == null) snapshot = result;
+                return snapshot;
+            }
+        }
+        return result;
+    }
+
+    private List<UpiApp> queryUpiApps() {
+        List<UpiApp> upiApps = new ArrayList<>();
+        PackageManager packageManager = context.getPackageManager();
+        UpiAppIconCache iconCache = UpiAppIconCache.getInstance(context);
+
+        // Create intent to find apps that handle UPI payments
+        Intent upiIntent = new Intent(Intent.ACTION_VIEW);
+        upiIntent.setData(Uri.parse("upi://pay"));
+
+        List<ResolveInfo> resolveInfos = packageManager.queryIntentActivities(upiIntent, 0);
+
+        for (ResolveInfo resolveInfo : resolveInfos) {
+            String packageName = resolveInfo.activityInfo.packageName;
+            String appName = resolveInfo.loadLabel(packageManager).toString();
+
+            // Icons are loaded lazily, detection only pays for the label
+            upiApps.add(new UpiApp(appName, packageName, iconCache));
+        }
+
+        return upiApps;
+    }
+
+    private void registerPackageReceiver() {
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+
+        context.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                Log.d(TAG, "Package change " + intent.getAction() + " - invalidating UPI app cache");
+                invalidate();
+            }
+        }, filter);
+    }
+
+    private static final class Snapshot {
+        final List<UpiApp> apps;
+        final Map<String, UpiApp> appsByPackage;
+
+        Snapshot(List<UpiApp> apps, Map<String, UpiApp> appsByPackage) {
+            this.apps = apps;
+            this.appsByPackage = appsByPackage;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.adamsnub.upilib.journal;
+
+import com.adamsnub.upilib.models.Money;
+
+/**
+ * Result counts and settled amount for one local calendar day
+ */
+public class DailyTotal {
+    private final long dayStartMillis;
+    private final int count;
+    private final int successCount;
+    private final long successPaise;
+
+    DailyTotal(long dayStartMillis, int count, int successCount, long successPaise) {
+        this.dayStartMillis = dayStartMillis;
+        this.count = count;
+        this.successCount = successCount;
+        this.successPaise = successPaise;
+    }
+
+    public long getDayStartMillis() {
+        return dayStartMillis;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Sum of the amounts of successful payments
+     */
+    public Money getSuccessAmount() {
+        return Money.ofPaise(successPaise);
+    }
+}
@@ -0,0 +1,32 @@
+package com.adamsnub.upilib.journal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of history results, newest first
+ */
+public class HistoryPage {
+    private final List<JournalEntry> entries;
+    private final long nextCursor;
+
+    HistoryPage(List<JournalEntry> entries, long nextCursor) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<JournalEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Cursor for the following page; only meaningful when {@link #hasMore()}
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor > 0;
+    }
+}
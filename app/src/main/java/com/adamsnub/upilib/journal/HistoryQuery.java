@@ -0,0 +1,125 @@
+package com.adamsnub.upilib.journal;
+
+/**
+ * Filter and page position for {@link TransactionHistory#query(HistoryQuery)}.
+ * Unset filters match everything; results are returned newest first.
+ */
+public class HistoryQuery {
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final String status;
+    private final String payeeVpa;
+    private final String targetPackage;
+    private final long fromMillis;
+    private final long toMillis;
+    private final long cursor;
+    private final int limit;
+
+    private HistoryQuery(Builder builder) {
+        this.status = builder.status;
+        this.payeeVpa = builder.payeeVpa;
+        this.targetPackage = builder.targetPackage;
+        this.fromMillis = builder.fromMillis;
+        this.toMillis = builder.toMillis;
+        this.cursor = builder.cursor;
+        this.limit = builder.limit;
+    }
+
+    public String getStatus() { return status; }
+    public String getPayeeVpa() { return payeeVpa; }
+    public String getTargetPackage() { return targetPackage; }
+    public long getFromMillis() { return fromMillis; }
+    public long getToMillis() { return toMillis; }
+    public long getCursor() { return cursor; }
+    public int getLimit() { return limit; }
+
+    /**
+     * Same filters, positioned after the given page
+     */
+    public HistoryQuery next(HistoryPage page) {
+        return new Builder(this).setCursor(page.getNextCursor()).build();
+    }
+
+    boolean matches(JournalEntry entry) {
+        if (status != null && !status.equalsIgnoreCase(entry.getStatus())) return false;
+        if (payeeVpa != null && !payeeVpa.equalsIgnoreCase(entry.getPayeeVpa())) return false;
+        if (targetPackage != null && !targetPackage.equals(entry.getTargetPackage())) return false;
+        long timestamp = entry.getTimestamp();
+        return timestamp >= fromMillis && timestamp < toMillis;
+    }
+
+    public static class Builder {
+        private String status;
+        private String payeeVpa;
+        private String targetPackage;
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+        private long cursor = Long.MAX_VALUE;
+        private int limit = DEFAULT_LIMIT;
+
+        public Builder() {}
+
+        private Builder(HistoryQuery query) {
+            this.status = query.status;
+            this.payeeVpa = query.payeeVpa;
+            this.targetPackage = query.targetPackage;
+            this.fromMillis = query.fromMillis;
+            this.toMillis = query.toMillis;
+            this.cursor = query.cursor;
+            this.limit = query.limit;
+        }
+
+        /**
+         * Only results with this TransactionResponse.STATUS_* value
+         */
+        public Builder setStatus(String status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder setPayeeVpa(String payeeVpa) {
+            this.payeeVpa = payeeVpa;
+            return this;
+        }
+
+        /**
+         * Only payments launched in this UPI app package
+         */
+        public Builder setTargetPackage(String targetPackage) {
+            this.targetPackage = targetPackage;
+            return this;
+        }
+
+        /**
+         * Only results recorded in [fromMillis, toMillis)
+         */
+        public Builder setDateRange(long fromMillis, long toMillis) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            return this;
+        }
+
+        /**
+         * Resume after a previous page; see {@link HistoryPage#getNextCursor()}
+         */
+        public Builder setCursor(long cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+
+        public Builder setLimit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public HistoryQuery build() {
+            if (limit <= 0) {
+                throw new IllegalStateException("Limit must be positive");
+            }
+            if (fromMillis >= toMillis) {
+                throw new IllegalStateException("Date range is empty");
+            }
+            return new HistoryQuery(this);
+        }
+    }
+}
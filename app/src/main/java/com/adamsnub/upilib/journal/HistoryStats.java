@@ -0,0 +1,55 @@
+package com.adamsnub.upilib.journal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the running aggregates kept by {@link TransactionHistory}
+ */
+public class HistoryStats {
+    private final int totalCount;
+    private final int successCount;
+    private final Map<String, Integer> countsByStatus;
+    private final Map<String, Integer> countsByResponseCode;
+    private final List<DailyTotal> dailyTotals;
+
+    HistoryStats(int totalCount, int successCount, Map<String, Integer> countsByStatus,
+                 Map<String, Integer> countsByResponseCode, List<DailyTotal> dailyTotals) {
+        this.totalCount = totalCount;
+        this.successCount = successCount;
+        this.countsByStatus = Collections.unmodifiableMap(countsByStatus);
+        this.countsByResponseCode = Collections.unmodifiableMap(countsByResponseCode);
+        this.dailyTotals = Collections.unmodifiableList(dailyTotals);
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Successful results over all results, 0 when there are none
+     */
+    public double getSuccessRate() {
+        return totalCount == 0 ? 0 : (double) successCount / totalCount;
+    }
+
+    public Map<String, Integer> getCountsByStatus() {
+        return countsByStatus;
+    }
+
+    public Map<String, Integer> getCountsByResponseCode() {
+        return countsByResponseCode;
+    }
+
+    /**
+     * Per-day totals, oldest day first
+     */
+    public List<DailyTotal> getDailyTotals() {
+        return dailyTotals;
+    }
+}
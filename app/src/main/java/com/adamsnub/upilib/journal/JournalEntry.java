@@ -0,0 +1,158 @@
+package com.adamsnub.upilib.journal;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.TransactionResponse;
+
+/**
+ * One record in the {@link TransactionJournal}: a payment launch or its result.
+ *
+ * Result entries repeat the request fields of the launch, so the latest entry
+ * for a transactionRef always describes the whole transaction.
+ */
+public class JournalEntry {
+
+    public enum Type {
+        LAUNCH(1),
+        RESULT(2);
+
+        // Written to the journal in place of the ordinal; never reuse a code
+        final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        /**
+         * The type stored under a code, or null for a code this version does not know
+         */
+        static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) return type;
+            }
+            return null;
+        }
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final long timestamp;
+    private final String transactionRef;
+    private final String payeeVpa;
+    private final String payeeName;
+    private final String amount;
+    private final String targetPackage;
+    private final String status;
+    private final String responseCode;
+    private final String transactionId;
+    private final String approvalRefNo;
+    private final String rawResponse;
+
+    JournalEntry(Type type, long sequence, long timestamp, String transactionRef, String payeeVpa,
+                 String payeeName, String amount, String targetPackage, String status, String responseCode,
+                 String transactionId, String approvalRefNo, String rawResponse) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.transactionRef = transactionRef;
+        this.payeeVpa = payeeVpa;
+        this.payeeName = payeeName;
+        this.amount = amount;
+        this.targetPackage = targetPackage;
+        this.status = status;
+        this.responseCode = responseCode;
+        this.transactionId = transactionId;
+        this.approvalRefNo = approvalRefNo;
+        this.rawResponse = rawResponse;
+    }
+
+    static JournalEntry launch(long sequence, long timestamp, PaymentRequest request, String targetPackage) {
+        return new JournalEntry(Type.LAUNCH, sequence, timestamp, request.getTransactionRef(),
+                request.getPayeeVpa(), request.getPayeeName(), request.getAmount(), targetPackage,
+                null, null, null, null, null);
+    }
+
+    static JournalEntry result(long sequence, long timestamp, JournalEntry launch, PaymentRequest request,
+                               String targetPackage, TransactionResponse response) {
+        String ref = request != null ? request.getTransactionRef() : response.getTransactionRef();
+        String vpa = request != null ? request.getPayeeVpa() : launch != null ? launch.payeeVpa : null;
+        String name = request != null ? request.getPayeeName() : launch != null ? launch.payeeName : null;
+        String amount = request != null ? request.getAmount() : launch != null ? launch.amount : null;
+        String target = targetPackage != null ? targetPackage : launch != null ? launch.targetPackage : null;
+        return new JournalEntry(Type.RESULT, sequence, timestamp, ref, vpa, name, amount, target,
+                response.getStatus(), response.getResponseCode(), response.getTransactionId(),
+                response.getApprovalRefNo(), response.getRawResponse());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Monotonic position in the journal; later entries for a transaction supersede earlier ones
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getTransactionRef() {
+        return transactionRef;
+    }
+
+    public String getPayeeVpa() {
+        return payeeVpa;
+    }
+
+    public String getPayeeName() {
+        return payeeName;
+    }
+
+    public String getAmount() {
+        return amount;
+    }
+
+    public String getTargetPackage() {
+        return targetPackage;
+    }
+
+    /**
+     * Result status (a TransactionResponse.STATUS_* value), null for launches
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public String getResponseCode() {
+        return responseCode;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getApprovalRefNo() {
+        return approvalRefNo;
+    }
+
+    public String getRawResponse() {
+        return rawResponse;
+    }
+
+    /**
+     * Rebuild the parsed response for a result entry, or null for a launch
+     */
+    public TransactionResponse toTransactionResponse() {
+        if (type != Type.RESULT) return null;
+        TransactionResponse response = new TransactionResponse();
+        response.setTransactionRef(transactionRef);
+        response.setStatus(status);
+        response.setResponseCode(responseCode);
+        response.setTransactionId(transactionId);
+        response.setApprovalRefNo(approvalRefNo);
+        response.setRawResponse(rawResponse);
+        return response;
+    }
+}
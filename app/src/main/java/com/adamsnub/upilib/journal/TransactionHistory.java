@@ -0,0 +1,215 @@
+package com.adamsnub.upilib.journal;
+
+import android.content.Context;
+
+import com.adamsnub.upilib.models.Money;
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Queryable history of payment results with running aggregates.
+ *
+ * Keeps the latest result per transactionRef from the {@link TransactionJournal},
+ * ordered by journal sequence for cursor pagination. Totals, success rate,
+ * per-code and per-day counts are adjusted as each result arrives (replacing a
+ * transaction's earlier result first subtracts it), so reading them never
+ * scans the history.
+ */
+public class TransactionHistory implements TransactionJournal.Listener {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static volatile TransactionHistory instance;
+
+    private final TransactionJournal journal;
+    private final Future<?> attached;
+    private final TimeZone timeZone;
+
+    // Guarded by this
+    private final Map<String, JournalEntry> resultsByRef = new HashMap<>();
+    private final TreeMap<Long, JournalEntry> bySequence = new TreeMap<>();
+    private final Map<String, int[]> countsByStatus = new HashMap<>();
+    private final Map<String, int[]> countsByResponseCode = new HashMap<>();
+    private final TreeMap<Long, long[]> dailyTotals = new TreeMap<>();
+    private int totalCount;
+    private int successCount;
+
+    public TransactionHistory(TransactionJournal journal) {
+        this(journal, TimeZone.getDefault());
+    }
+
+    public TransactionHistory(TransactionJournal journal, TimeZone timeZone) {
+        this.journal = journal;
+        this.timeZone = timeZone;
+        this.attached = journal.addListener(this);
+    }
+
+    /**
+     * History over the process-wide journal
+     */
+    public static TransactionHistory getInstance(Context context) {
+        TransactionHistory history = instance;
+        if (history == null) {
+            synchronized (TransactionHistory.class) {
+                history = instance;
+                if (history == null) {
+                    history = instance = new TransactionHistory(TransactionJournal.getInstance(context));
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Stop following the journal; the history keeps what it has seen so far
+     */
+    public void detach() {
+        journal.removeListener(this);
+    }
+
+    @Override
+    public void onEntryApplied(JournalEntry entry) {
+        if (entry.getType() != JournalEntry.Type.RESULT || entry.getTransactionRef() == null) {
+            return;
+        }
+        synchronized (this) {
+            JournalEntry previous = resultsByRef.get(entry.getTransactionRef());
+            if (previous != null) {
+                if (previous.getSequence() >= entry.getSequence()) return;
+                bySequence.remove(previous.getSequence());
+                account(previous, -1);
+            }
+            resultsByRef.put(entry.getTransactionRef(), entry);
+            bySequence.put(entry.getSequence(), entry);
+            account(entry, 1);
+        }
+    }
+
+    /**
+     * One page of matching results, newest first. Blocks until the journal has
+     * been loaded, so call it off the main thread.
+     */
+    public HistoryPage query(HistoryQuery query) {
+        awaitAttached();
+        List<JournalEntry> page = new ArrayList<>(Math.min(query.getLimit(), 256));
+        synchronized (this) {
+            for (JournalEntry entry : bySequence.headMap(query.getCursor(), false).descendingMap().values()) {
+                if (!query.matches(entry)) continue;
+                page.add(entry);
+                if (page.size() == query.getLimit()) {
+                    return new HistoryPage(page, entry.getSequence());
+                }
+            }
+        }
+        return new HistoryPage(page, 0);
+    }
+
+    /**
+     * Latest recorded result for a transaction, or null
+     */
+    public JournalEntry getResult(String transactionRef) {
+        awaitAttached();
+        synchronized (this) {
+            return resultsByRef.get(transactionRef);
+        }
+    }
+
+    /**
+     * Snapshot of the running aggregates
+     */
+    public HistoryStats getStats() {
+        awaitAttached();
+        synchronized (this) {
+            List<DailyTotal> days = new ArrayList<>(dailyTotals.size());
+            for (Map.Entry<Long, long[]> day : dailyTotals.entrySet()) {
+                long[] totals = day.getValue();
+                days.add(new DailyTotal(day.getKey(), (int) totals[0], (int) totals[1], totals[2]));
+            }
+            return new HistoryStats(totalCount, successCount, toCounts(countsByStatus),
+                    toCounts(countsByResponseCode), days);
+        }
+    }
+
+    /**
+     * Totals for the local day containing the given time, or null if nothing was recorded that day
+     */
+    public DailyTotal getDailyTotal(long timeMillis) {
+        awaitAttached();
+        long day = dayStart(timeMillis);
+        synchronized (this) {
+            long[] totals = dailyTotals.get(day);
+            return totals != null ? new DailyTotal(day, (int) totals[0], (int) totals[1], totals[2]) : null;
+        }
+    }
+
+    private void account(JournalEntry entry, int delta) {
+        boolean success = TransactionResponse.STATUS_SUCCESS.equals(entry.getStatus());
+        totalCount += delta;
+        if (success) successCount += delta;
+        adjust(countsByStatus, entry.getStatus(), delta);
+        adjust(countsByResponseCode, entry.getResponseCode(), delta);
+
+        long day = dayStart(entry.getTimestamp());
+        long[] totals = dailyTotals.get(day);
+        if (totals == null) {
+            totals = new long[3];
+            dailyTotals.put(day, totals);
+        }
+        totals[0] += delta;
+        if (success) {
+            totals[1] += delta;
+            long paise = Money.parsePaise(entry.getAmount());
+            if (paise > 0) totals[2] += delta * paise;
+        }
+        if (totals[0] == 0) {
+            dailyTotals.remove(day);
+        }
+    }
+
+    private static void adjust(Map<String, int[]> counts, String key, int delta) {
+        if (key == null) return;
+        int[] count = counts.get(key);
+        if (count == null) {
+            count = new int[1];
+            counts.put(key, count);
+        }
+        count[0] += delta;
+        if (count[0] == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static Map<String, Integer> toCounts(Map<String, int[]> counts) {
+        Map<String, Integer> result = new HashMap<>(counts.size() * 2);
+        for (Map.Entry<String, int[]> count : counts.entrySet()) {
+            result.put(count.getKey(), count.getValue()[0]);
+        }
+        return result;
+    }
+
+    private long dayStart(long timeMillis) {
+        int offset = timeZone.getOffset(timeMillis);
+        long local = timeMillis + offset;
+        long day = local >= 0 ? local / DAY_MILLIS : (local - DAY_MILLIS + 1) / DAY_MILLIS;
+        return day * DAY_MILLIS - offset;
+    }
+
+    private void awaitAttached() {
+        try {
+            attached.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading history", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load history", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,638 @@
+package com.adamsnub.upilib.journal;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.adamsnub.upilib.codec.CompactReader;
+import com.adamsnub.upilib.codec.CompactWriter;
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, crash-safe log of payment launches and results.
+ *
+ * Records go to numbered segment files as [length][crc32][payload]; a torn
+ * record at the tail of the last segment is truncated when the journal is
+ * opened. All writes run on one background thread and are fsynced once per
+ * batch, so record*() is cheap to call from the UI thread. The latest entry
+ * per transactionRef and per txnId, and the latest result per transactionRef,
+ * are kept in memory for lookups and survive compaction.
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final String TAG = "TransactionJournal";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final int FORMAT_VERSION = 2;
+    private static final int FIELD_COUNT = 10;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final String DIRECTORY_NAME = "upi-journal";
+
+    private static volatile TransactionJournal instance;
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final ExecutorService writer;
+    private final ConcurrentLinkedQueue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private final ConcurrentHashMap<String, JournalEntry> byTransactionRef = new ConcurrentHashMap<>();
+    // A retry writes a LAUNCH after an earlier RESULT, so results are indexed separately
+    private final ConcurrentHashMap<String, JournalEntry> resultByTransactionRef = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, JournalEntry> byTransactionId = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Writer-thread state
+    private final CRC32 crc = new CRC32();
+    private final CompactWriter recordWriter = new CompactWriter(512);
+    private final ReusableBuffer batchBuffer = new ReusableBuffer(16 * 1024);
+    private final byte[] header = new byte[8];
+    private FileOutputStream segmentOut;
+    private int segmentIndex;
+    private long segmentBytes;
+    private long nextSequence = 1;
+    private volatile IOException loadError;
+    private volatile boolean closed;
+
+    private TransactionJournal(File directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "upi-journal");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Receives every entry as it is applied to the index, on the journal's writer thread
+     */
+    public interface Listener {
+        void onEntryApplied(JournalEntry entry);
+    }
+
+    /**
+     * Process-wide journal stored under the app's files directory
+     */
+    public static TransactionJournal getInstance(Context context) {
+        TransactionJournal journal = instance;
+        if (journal == null) {
+            synchronized (TransactionJournal.class) {
+                journal = instance;
+                if (journal == null) {
+                    File dir = new File(context.getApplicationContext().getFilesDir(), DIRECTORY_NAME);
+                    journal = instance = open(dir);
+                }
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Open (or create) the journal in the given directory. Replaying the existing
+     * segments happens in the background; lookups wait for it to finish.
+     */
+    public static TransactionJournal open(File directory) {
+        return open(directory, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    public static TransactionJournal open(File directory, long maxSegmentBytes) {
+        TransactionJournal journal = new TransactionJournal(directory, maxSegmentBytes);
+        journal.writer.execute(journal::load);
+        return journal;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Record that a payment was handed to a UPI app (or the chooser when targetPackage is null)
+     */
+    public void recordLaunch(PaymentRequest request, String targetPackage) {
+        long timestamp = System.currentTimeMillis();
+        enqueue(new PendingWrite(request, targetPackage, null, timestamp));
+    }
+
+    /**
+     * Record the raw and parsed result of a payment. The request may be null, in
+     * which case the request fields are taken from the launch entry for the
+     * response's transactionRef.
+     */
+    public void recordResult(PaymentRequest request, String targetPackage, TransactionResponse response) {
+        if (response == null) {
+            throw new IllegalArgumentException("response must not be null");
+        }
+        long timestamp = System.currentTimeMillis();
+        enqueue(new PendingWrite(request, targetPackage, response, timestamp));
+    }
+
+    /**
+     * Latest entry for a transactionRef, or null. Entries recorded moments ago
+     * may not be visible until the writer has applied them; see {@link #flush()}.
+     */
+    public JournalEntry findByTransactionRef(String transactionRef) {
+        awaitLoaded();
+        return transactionRef != null ? byTransactionRef.get(transactionRef) : null;
+    }
+
+    /**
+     * Latest RESULT entry for a transactionRef, or null if no result was recorded
+     */
+    public JournalEntry findResultByTransactionRef(String transactionRef) {
+        awaitLoaded();
+        return transactionRef != null ? resultByTransactionRef.get(transactionRef) : null;
+    }
+
+    /**
+     * Latest entry carrying the given UPI transaction id, or null
+     */
+    public JournalEntry findByTransactionId(String transactionId) {
+        awaitLoaded();
+        return transactionId != null ? byTransactionId.get(transactionId) : null;
+    }
+
+    /**
+     * Snapshot of the latest entry for every transaction, in sequence order
+     */
+    public List<JournalEntry> latestEntries() {
+        awaitLoaded();
+        List<JournalEntry> entries = new ArrayList<>(byTransactionRef.values());
+        Collections.sort(entries, BY_SEQUENCE);
+        return entries;
+    }
+
+    public int size() {
+        awaitLoaded();
+        return byTransactionRef.size();
+    }
+
+    /**
+     * Register a listener. It is first handed the latest entry and the latest
+     * result of every known transaction in sequence order, which is what a
+     * compacted journal holds, then every new entry, with no gap between.
+     * The returned future completes once that replay has been delivered.
+     */
+    public Future<?> addListener(final Listener listener) {
+        return writer.submit(() -> {
+            List<JournalEntry> entries = retainedEntries();
+            for (JournalEntry entry : entries) {
+                notifyListener(listener, entry);
+            }
+            listeners.add(listener);
+        });
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Block until everything recorded so far is on disk
+     *
+     * @throws IOException if a write failed, or if the journal could not be loaded,
+     *                     in which case nothing is written
+     */
+    public void flush() throws IOException {
+        await(writer.submit(this::drain));
+        if (loadError != null) throw loadError;
+    }
+
+    /**
+     * Rewrite the journal so that it holds only the latest entry and the latest
+     * result per transaction.
+     * Runs on the writer thread; the returned future completes when old segments
+     * have been deleted.
+     */
+    public Future<?> compact() {
+        return writer.submit(() -> {
+            try {
+                drain();
+                compactSegments();
+            } catch (IOException e) {
+                Log.e(TAG, "Compaction failed", e);
+                throw new IllegalStateException("Journal compaction failed", e);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        Future<?> last = writer.submit(() -> {
+            drain();
+            closeSegment();
+            return null;
+        });
+        closed = true;
+        writer.shutdown();
+        await(last);
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        pending.add(write);
+        if (drainScheduled.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                drainScheduled.set(false);
+                try {
+                    drain();
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to write journal batch", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Apply and write every queued record, then fsync once for the whole batch
+     */
+    private Void drain() throws IOException {
+        if (pending.isEmpty()) return null;
+        if (loadError != null) {
+            pending.clear();
+            throw loadError;
+        }
+        if (segmentOut == null) {
+            openSegment(segmentIndex);
+        }
+        PendingWrite write;
+        while ((write = pending.poll()) != null) {
+            JournalEntry entry = write.toEntry(nextSequence++);
+            apply(entry);
+            writeRecord(entry);
+            if (segmentBytes + batchBuffer.size() >= maxSegmentBytes) {
+                writeBatch();
+                segmentOut.getFD().sync();
+                closeSegment();
+                openSegment(segmentIndex + 1);
+            }
+        }
+        writeBatch();
+        segmentOut.getChannel().force(false);
+        return null;
+    }
+
+    private void apply(JournalEntry entry) {
+        String ref = entry.getTransactionRef();
+        if (ref != null) {
+            putIfNewer(byTransactionRef, ref, entry);
+            if (entry.getType() == JournalEntry.Type.RESULT) {
+                putIfNewer(resultByTransactionRef, ref, entry);
+            }
+        }
+        if (entry.getTransactionId() != null) {
+            putIfNewer(byTransactionId, entry.getTransactionId(), entry);
+        }
+        for (Listener listener : listeners) {
+            notifyListener(listener, entry);
+        }
+    }
+
+    /**
+     * Replay may see a record twice after an interrupted compaction; keep the later one
+     */
+    private static void putIfNewer(ConcurrentHashMap<String, JournalEntry> index, String key, JournalEntry entry) {
+        JournalEntry current = index.get(key);
+        if (current == null || current.getSequence() < entry.getSequence()) {
+            index.put(key, entry);
+        }
+    }
+
+    private static void notifyListener(Listener listener, JournalEntry entry) {
+        try {
+            listener.onEntryApplied(entry);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Journal listener failed", e);
+        }
+    }
+
+    private void writeRecord(JournalEntry entry) throws IOException {
+        recordWriter.reset();
+        writeEntry(recordWriter, entry);
+        int length = recordWriter.size();
+        crc.reset();
+        recordWriter.updateChecksum(crc);
+        putInt(header, 0, length);
+        putInt(header, 4, (int) crc.getValue());
+        batchBuffer.write(header, 0, header.length);
+        recordWriter.writeTo(batchBuffer);
+    }
+
+    private void writeBatch() throws IOException {
+        segmentOut.write(batchBuffer.buffer(), 0, batchBuffer.size());
+        segmentBytes += batchBuffer.size();
+        batchBuffer.reset();
+    }
+
+    private void load() {
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create journal directory " + directory);
+            }
+            // A leftover compaction file was never renamed into place; the old segments are intact
+            File[] stale = directory.listFiles((dir, name) -> name.endsWith(COMPACT_SUFFIX));
+            if (stale != null) {
+                for (File file : stale) file.delete();
+            }
+            int[] segments = listSegments();
+            for (int i = 0; i < segments.length; i++) {
+                replaySegment(segmentFile(segments[i]), i == segments.length - 1);
+            }
+            segmentIndex = segments.length > 0 ? segments[segments.length - 1] : 0;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to load journal", e);
+            loadError = e;
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void replaySegment(File file, boolean last) throws IOException {
+        long validLength = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+            byte[] payload = new byte[256];
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = data.readInt();
+                    checksum = data.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) break;
+                if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+                try {
+                    data.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) break;
+
+                JournalEntry entry = readEntry(payload, length);
+                if (entry != null) {
+                    apply(entry);
+                    nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+                }
+                validLength += 8 + length;
+            }
+        }
+        if (validLength < file.length()) {
+            if (!last) {
+                throw new IOException("Corrupt journal segment " + file.getName());
+            }
+            Log.w(TAG, "Truncating torn tail of " + file.getName() + " at " + validLength);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+                raf.getFD().sync();
+            }
+        }
+    }
+
+    private void compactSegments() throws IOException {
+        if (loadError != null) throw loadError;
+        closeSegment();
+        int[] old = listSegments();
+        int target = (old.length > 0 ? old[old.length - 1] : segmentIndex) + 1;
+
+        File temp = new File(directory, SEGMENT_PREFIX + target + COMPACT_SUFFIX);
+        List<JournalEntry> entries = retainedEntries();
+        segmentOut = new FileOutputStream(temp);
+        segmentBytes = 0;
+        for (JournalEntry entry : entries) {
+            writeRecord(entry);
+            if (batchBuffer.size() >= 64 * 1024) writeBatch();
+        }
+        writeBatch();
+        segmentOut.getFD().sync();
+        segmentOut.close();
+        segmentOut = null;
+
+        // Once renamed, the compacted segment supersedes the old ones; replay keeps
+        // the highest sequence per ref, so a crash before the deletes is harmless
+        if (!temp.renameTo(segmentFile(target))) {
+            throw new IOException("Cannot install compacted segment " + temp);
+        }
+        for (int index : old) {
+            segmentFile(index).delete();
+        }
+        openSegment(target);
+        Log.d(TAG, "Compacted " + old.length + " segments into " + entries.size() + " entries");
+    }
+
+    /**
+     * Latest entry per transaction plus its latest result when that is older, in sequence order
+     */
+    private List<JournalEntry> retainedEntries() {
+        List<JournalEntry> entries = new ArrayList<>(byTransactionRef.size() + resultByTransactionRef.size());
+        entries.addAll(byTransactionRef.values());
+        for (JournalEntry result : resultByTransactionRef.values()) {
+            if (byTransactionRef.get(result.getTransactionRef()) != result) {
+                entries.add(result);
+            }
+        }
+        Collections.sort(entries, BY_SEQUENCE);
+        return entries;
+    }
+
+    private void openSegment(int index) throws IOException {
+        File file = segmentFile(index);
+        segmentOut = new FileOutputStream(file, true);
+        segmentIndex = index;
+        segmentBytes = file.length();
+    }
+
+    private void closeSegment() throws IOException {
+        if (segmentOut != null) {
+            segmentOut.close();
+            segmentOut = null;
+        }
+    }
+
+    private int[] listSegments() {
+        String[] names = directory.list();
+        if (names == null) return new int[0];
+        int[] indexes = new int[names.length];
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                try {
+                    indexes[count++] = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length()));
+                } catch (NumberFormatException ignored) {
+                    // Not ours
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(indexes, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private File segmentFile(int index) {
+        return new File(directory, SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+    }
+
+    private void awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading journal", e);
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Journal write failed", cause);
+        }
+    }
+
+    /**
+     * Version byte, type, varint sequence and timestamp, then a varint bitmask
+     * of the string fields present followed by those fields
+     */
+    static void writeEntry(CompactWriter out, JournalEntry entry) {
+        String[] fields = fields(entry);
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) mask |= 1 << i;
+        }
+        out.writeByte(FORMAT_VERSION)
+                .writeByte(entry.getType().code)
+                .writeVarLong(entry.getSequence())
+                .writeVarLong(Math.max(0, entry.getTimestamp()))
+                .writeVarLong(mask);
+        for (String field : fields) {
+            if (field != null) out.writeString(field);
+        }
+    }
+
+    /**
+     * Decode one record payload, or null if it was written by a newer version
+     */
+    static JournalEntry readEntry(byte[] payload, int length) throws IOException {
+        int version = payload[0] & 0xFF;
+        if (version != FORMAT_VERSION) {
+            Log.w(TAG, "Skipping record with unknown format version " + version);
+            return null;
+        }
+        try {
+            CompactReader in = new CompactReader(payload, 1, length - 1);
+            int code = in.readByte();
+            JournalEntry.Type type = JournalEntry.Type.fromCode(code);
+            if (type == null) {
+                throw new IOException("Unknown journal entry type " + code);
+            }
+            long sequence = in.readVarLong();
+            long timestamp = in.readVarLong();
+            int mask = in.readVarInt();
+            String[] fields = new String[FIELD_COUNT];
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if ((mask & (1 << i)) != 0) fields[i] = in.readString();
+            }
+            return new JournalEntry(type, sequence, timestamp, fields[0], fields[1], fields[2], fields[3],
+                    fields[4], fields[5], fields[6], fields[7], fields[8], fields[9]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed journal record", e);
+        }
+    }
+
+    private static String[] fields(JournalEntry entry) {
+        return new String[] {
+                entry.getTransactionRef(), entry.getPayeeVpa(), entry.getPayeeName(), entry.getAmount(),
+                entry.getTargetPackage(), entry.getStatus(), entry.getResponseCode(),
+                entry.getTransactionId(), entry.getApprovalRefNo(), entry.getRawResponse()
+        };
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    private static final Comparator<JournalEntry> BY_SEQUENCE =
+            (a, b) -> Long.compare(a.getSequence(), b.getSequence());
+
+    /**
+     * A record waiting for the writer thread, which assigns its sequence number
+     */
+    private final class PendingWrite {
+        final PaymentRequest request;
+        final String targetPackage;
+        final TransactionResponse response;
+        final long timestamp;
+
+        PendingWrite(PaymentRequest request, String targetPackage, TransactionResponse response, long timestamp) {
+            this.request = request;
+            this.targetPackage = targetPackage;
+            this.response = response;
+            this.timestamp = timestamp;
+        }
+
+        JournalEntry toEntry(long sequence) {
+            if (response == null) {
+                return JournalEntry.launch(sequence, timestamp, request, targetPackage);
+            }
+            String ref = request != null ? request.getTransactionRef() : response.getTransactionRef();
+            JournalEntry launch = ref != null ? byTransactionRef.get(ref) : null;
+            return JournalEntry.result(sequence, timestamp, launch, request, targetPackage, response);
+        }
+    }
+
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+        ReusableBuffer(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.adamsnub.upilib.launcher;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.OnLifecycleEvent;
+
+import com.adamsnub.upilib.utils.UpiExecutors;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Routes payment results to the listener registered for each transactionRef,
+ * so overlapping payments and retries never deliver to the wrong screen.
+ *
+ * Registrations made with a {@link LifecycleOwner} are dropped automatically
+ * when the owner is destroyed; others stay until {@link #unregister} or
+ * {@link #remove}. A result whose transactionRef has no registration is not
+ * delivered anywhere; it is still in the transaction journal.
+ */
+public final class PaymentListenerRegistry {
+    private static final ConcurrentMap<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    private PaymentListenerRegistry() {}
+
+    public static void register(String transactionRef, PaymentStatusListener listener) {
+        register(transactionRef, listener, null);
+    }
+
+    /**
+     * Register a listener for a transaction, scoped to owner's lifecycle when owner is not null.
+     * Must be called on the main thread when an owner is given.
+     */
+    public static void register(String transactionRef, PaymentStatusListener listener, LifecycleOwner owner) {
+        if (transactionRef == null || listener == null) {
+            throw new IllegalArgumentException("transactionRef and listener are required");
+        }
+        Registration registration = new Registration(transactionRef, listener, owner);
+        Registration previous = registrations.put(transactionRef, registration);
+        if (previous != null) {
+            previous.detach();
+        }
+        registration.attach();
+    }
+
+    /**
+     * Listener for the transaction, or null
+     */
+    public static PaymentStatusListener get(String transactionRef) {
+        if (transactionRef == null) return null;
+        Registration registration = registrations.get(transactionRef);
+        return registration != null ? registration.listener : null;
+    }
+
+    /**
+     * Remove the registration only if it still belongs to listener
+     */
+    public static void unregister(String transactionRef, PaymentStatusListener listener) {
+        if (transactionRef == null) return;
+        Registration registration = registrations.get(transactionRef);
+        if (registration != null && registration.listener == listener
+                && registrations.remove(transactionRef, registration)) {
+            registration.detach();
+        }
+    }
+
+    /**
+     * Remove and return the listener for the transaction, typically once a final result is delivered.
+     * Safe to call from any thread.
+     */
+    public static PaymentStatusListener remove(String transactionRef) {
+        if (transactionRef == null) return null;
+        Registration registration = registrations.remove(transactionRef);
+        if (registration == null) return null;
+        registration.detach();
+        return registration.listener;
+    }
+
+    private static final class Registration implements LifecycleObserver {
+        final String transactionRef;
+        final PaymentStatusListener listener;
+        final LifecycleOwner owner;
+
+        Registration(String transactionRef, PaymentStatusListener listener, LifecycleOwner owner) {
+            this.transactionRef = transactionRef;
+            this.listener = listener;
+            this.owner = owner;
+        }
+
+        void attach() {
+            if (owner != null) {
+                owner.getLifecycle().addObserver(this);
+            }
+        }
+
+        /**
+         * Lifecycle observers may only be changed on the main thread, and results
+         * can be removed from any thread, so the removal is posted there if needed
+         */
+        void detach() {
+            if (owner == null) return;
+            if (UpiExecutors.isMainThread()) {
+                owner.getLifecycle().removeObserver(this);
+            } else {
+                UpiExecutors.main().execute(() -> owner.getLifecycle().removeObserver(this));
+            }
+        }
+
+        @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+        public void onDestroy() {
+            if (registrations.remove(transactionRef, this)) {
+                detach();
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.adamsnub.upilib.launcher;
+
+import android.util.Log;
+
+import com.adamsnub.upilib.journal.TransactionJournal;
+import com.adamsnub.upilib.models.TransactionResponse;
+import com.adamsnub.upilib.utils.UpiExecutors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows up on SUBMITTED (and UNKNOWN) payments until they reach a final status.
+ *
+ * Pending transactionRefs wait in a due-time queue. When some are due, the
+ * poller hands them to the {@link StatusChecker} in batches; at most
+ * maxConcurrentBatches batches are in flight at once. Refs that are still
+ * pending are retried after an exponential backoff with jitter, so a burst of
+ * pending payments does not turn into a burst of gateway calls. Final results
+ * go to the listener in {@link PaymentListenerRegistry} on the main thread.
+ */
+public class PendingStatusPoller {
+    private static final String TAG = "PendingStatusPoller";
+
+    private static volatile PendingStatusPoller defaultPoller;
+
+    private final StatusChecker checker;
+    private final int batchSize;
+    private final long initialDelayNanos;
+    private final long maxDelayNanos;
+    private final int maxAttempts;
+    private final TransactionJournal journal;
+    private final Executor deliveryExecutor;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore batchPermits;
+    private final Random random = new Random();
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>(16,
+            (a, b) -> Long.compare(a.dueAt, b.dueAt));
+    private ScheduledFuture<?> nextTick;
+    private long nextTickAt;
+
+    private PendingStatusPoller(Builder builder) {
+        this.checker = builder.checker;
+        this.batchSize = builder.batchSize;
+        this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.initialDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxDelayMillis);
+        this.maxAttempts = builder.maxAttempts;
+        this.journal = builder.journal;
+        this.deliveryExecutor = builder.deliveryExecutor != null ? builder.deliveryExecutor : UpiExecutors.main();
+        this.batchPermits = new Semaphore(builder.maxConcurrentBatches);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "upi-status-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+
+        final AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(builder.maxConcurrentBatches, builder.maxConcurrentBatches,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, "upi-status-check-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Install the poller used by PaymentActivity for pending results; replaces and shuts down any previous one
+     */
+    public static void setDefault(PendingStatusPoller poller) {
+        PendingStatusPoller previous = defaultPoller;
+        defaultPoller = poller;
+        if (previous != null && previous != poller) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * The installed poller, or null if pending results are not followed up
+     */
+    public static PendingStatusPoller getDefault() {
+        return defaultPoller;
+    }
+
+    /**
+     * Start polling for a transaction; does nothing if it is already pending
+     */
+    public void enqueue(String transactionRef) {
+        if (transactionRef == null) {
+            throw new IllegalArgumentException("transactionRef must not be null");
+        }
+        synchronized (lock) {
+            if (pending.containsKey(transactionRef)) return;
+            Pending item = new Pending(transactionRef, System.nanoTime() + backoff(0));
+            pending.put(transactionRef, item);
+            queue.add(item);
+        }
+        Log.d(TAG, "Polling status of " + transactionRef);
+        scheduleTick();
+    }
+
+    /**
+     * Stop polling for a transaction, e.g. after the app learned the result elsewhere
+     */
+    public boolean cancel(String transactionRef) {
+        synchronized (lock) {
+            Pending item = pending.remove(transactionRef);
+            if (item == null) return false;
+            queue.remove(item);
+            return true;
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdown();
+        synchronized (lock) {
+            pending.clear();
+            queue.clear();
+        }
+    }
+
+    private void scheduleTick() {
+        synchronized (lock) {
+            Pending head = queue.peek();
+            if (head == null || scheduler.isShutdown()) return;
+            if (nextTick != null) {
+                if (nextTickAt <= head.dueAt) return;
+                nextTick.cancel(false);
+            }
+            nextTickAt = head.dueAt;
+            try {
+                nextTick = scheduler.schedule(this::dispatch,
+                        Math.max(0, head.dueAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                nextTick = null;
+            }
+        }
+    }
+
+    /**
+     * Send due refs to the checker, one batch per free permit. Refs due within
+     * half the initial delay ride along so that nearby retries share a request.
+     */
+    private void dispatch() {
+        while (true) {
+            final List<Pending> batch;
+            synchronized (lock) {
+                if (nextTick != null) {
+                    nextTick.cancel(false);
+                    nextTick = null;
+                }
+                Pending head = queue.peek();
+                long now = System.nanoTime();
+                if (head == null || head.dueAt > now) break;
+                long horizon = now + initialDelayNanos / 2;
+                // Out of permits: the next batch to finish dispatches again
+                if (!batchPermits.tryAcquire()) return;
+                batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+                while (batch.size() < batchSize && queue.peek() != null && queue.peek().dueAt <= horizon) {
+                    batch.add(queue.poll());
+                }
+            }
+            try {
+                workers.execute(() -> runBatch(batch));
+            } catch (RejectedExecutionException e) {
+                batchPermits.release();
+                return;
+            }
+        }
+        scheduleTick();
+    }
+
+    private void runBatch(List<Pending> batch) {
+        List<String> refs = new ArrayList<>(batch.size());
+        for (Pending item : batch) {
+            refs.add(item.transactionRef);
+        }
+
+        Map<String, TransactionResponse> results = null;
+        try {
+            results = checker.checkStatus(refs);
+        } catch (Exception e) {
+            Log.w(TAG, "Status check failed for " + refs.size() + " transactions", e);
+        }
+
+        List<TransactionResponse> finished = new ArrayList<>();
+        int expired = 0;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            for (Pending item : batch) {
+                // Cancelled while the check was running
+                if (pending.get(item.transactionRef) != item) continue;
+
+                TransactionResponse response = results != null ? results.get(item.transactionRef) : null;
+                if (response != null && isFinal(response)) {
+                    pending.remove(item.transactionRef);
+                    if (response.getTransactionRef() == null) {
+                        response.setTransactionRef(item.transactionRef);
+                    }
+                    finished.add(response);
+                } else if (++item.attempts >= maxAttempts) {
+                    pending.remove(item.transactionRef);
+                    expired++;
+                } else {
+                    item.dueAt = now + backoff(item.attempts);
+                    queue.add(item);
+                }
+            }
+        }
+        batchPermits.release();
+
+        if (expired > 0) {
+            Log.w(TAG, "Gave up on " + expired + " transactions after " + maxAttempts + " checks");
+        }
+        for (TransactionResponse response : finished) {
+            deliver(response);
+        }
+        try {
+            scheduler.execute(this::dispatch);
+        } catch (RejectedExecutionException e) {
+            // Shut down
+        }
+    }
+
+    private void deliver(final TransactionResponse response) {
+        if (journal != null) {
+            journal.recordResult(null, null, response);
+        }
+        deliveryExecutor.execute(() -> {
+            String ref = response.getTransactionRef();
+            PaymentStatusListener listener = PaymentListenerRegistry.get(ref);
+            if (listener != null) {
+                if (response.isSuccess()) {
+                    listener.onTransactionCompleted(response);
+                } else {
+                    listener.onTransactionCancelled();
+                }
+            } else {
+                Log.d(TAG, "No listener for " + ref + "; result is only journaled");
+            }
+            PaymentListenerRegistry.remove(ref);
+        });
+    }
+
+    private static boolean isFinal(TransactionResponse response) {
+        return response.isSuccess() || response.isFailure() || response.isCancelled();
+    }
+
+    /**
+     * initialDelay * 2^attempt capped at maxDelay, then jittered into [d/2, d]
+     */
+    private long backoff(int attempt) {
+        long delay = attempt >= 30 ? maxDelayNanos : Math.min(maxDelayNanos, initialDelayNanos << attempt);
+        if (delay < 0) delay = maxDelayNanos;
+        long half = delay / 2;
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * (delay - half));
+        }
+    }
+
+    private static final class Pending {
+        final String transactionRef;
+        long dueAt;
+        int attempts;
+
+        Pending(String transactionRef, long dueAt) {
+            this.transactionRef = transactionRef;
+            this.dueAt = dueAt;
+        }
+    }
+
+    public static class Builder {
+        private final StatusChecker checker;
+        private int batchSize = 50;
+        private int maxConcurrentBatches = 2;
+        private long initialDelayMillis = 5000;
+        private long maxDelayMillis = 5 * 60 * 1000;
+        private int maxAttempts = 12;
+        private TransactionJournal journal;
+        private Executor deliveryExecutor;
+
+        public Builder(StatusChecker checker) {
+            this.checker = checker;
+        }
+
+        /**
+         * Most transactionRefs passed to one checkStatus call
+         */
+        public Builder setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Most checkStatus calls running at the same time
+         */
+        public Builder setMaxConcurrentBatches(int maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+            return this;
+        }
+
+        /**
+         * Delay before the first check; each retry doubles it up to the maximum
+         */
+        public Builder setBackoff(long initialDelayMillis, long maxDelayMillis) {
+            this.initialDelayMillis = initialDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        public Builder setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Record final results in the journal so history reflects them
+         */
+        public Builder setJournal(TransactionJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Where listeners are called; the main thread by default
+         */
+        public Builder setDeliveryExecutor(Executor deliveryExecutor) {
+            this.deliveryExecutor = deliveryExecutor;
+            return this;
+        }
+
+        public PendingStatusPoller build() {
+            if (checker == null) {
+                throw new IllegalStateException("StatusChecker is required");
+            }
+            if (batchSize <= 0 || maxConcurrentBatches <= 0 || maxAttempts <= 0) {
+                throw new IllegalStateException("Batch size, concurrency and attempts must be positive");
+            }
+            if (initialDelayMillis <= 0 || maxDelayMillis < initialDelayMillis) {
+                throw new IllegalStateException("Invalid backoff delays");
+            }
+            return new PendingStatusPoller(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.adamsnub.upilib.launcher;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the current status of pending transactions, typically through the
+ * merchant's payment gateway. Called by {@link PendingStatusPoller} with whole
+ * batches so that one round-trip covers many transactions.
+ */
+public interface StatusChecker {
+
+    /**
+     * Return a response for each transactionRef whose status is known. Refs that
+     * are missing, or whose response is still SUBMITTED or UNKNOWN, are polled again later.
+     * Runs on a background thread.
+     */
+    Map<String, TransactionResponse> checkStatus(List<String> transactionRefs) throws Exception;
+}
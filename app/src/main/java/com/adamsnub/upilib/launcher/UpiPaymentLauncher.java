@@ -2,6 +2,7 @@ package com.adamsnub.upilib.launcher;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.util.Log;
 import android.net.Uri;
 
@@ -14,10 +15,15 @@ import androidx.fragment.app.Fragment;
 
 import com.adamsnub.upilib.utils.UpiIntentBuilder;     
 import com.adamsnub.upilib.detector.UpiAppDetector;
+import com.adamsnub.upilib.journal.TransactionJournal;
+import com.adamsnub.upilib.metrics.UpiMetrics;
 import com.adamsnub.upilib.models.PaymentRequest;
 import com.adamsnub.upilib.models.TransactionResponse;
 import com.adamsnub.upilib.models.UpiApp;
 import com.adamsnub.upilib.parser.UpiResponseParser;     
+import com.adamsnub.upilib.qr.QrCodeGenerator;
+import com.adamsnub.upilib.utils.UpiCallback;
+import com.google.zxing.WriterException;
 
 import java.util.List;
 
@@ -31,6 +37,8 @@ public class UpiPaymentLauncher {
     private String targetPackage;
     private UpiAppDetector appDetector;
     private android.content.Context context;
+    private final TransactionJournal journal;
+    private long launchStartNanos;
 
     public UpiPaymentLauncher(Object caller, PaymentStatusListener listener) {
         this.caller = caller;
@@ -38,6 +46,8 @@ public class UpiPaymentLauncher {
         this.intentBuilder = new UpiIntentBuilder();
         this.context = getContext();
         this.appDetector = new UpiAppDetector(context);
+        this.appDetector.preload();
+        this.journal = TransactionJournal.getInstance(context);
         registerLauncher();
     }
 
@@ -65,6 +75,8 @@ public class UpiPaymentLauncher {
             
             if (currentRequest != null) {
                 transactionResponse.setTransactionRef(currentRequest.getTransactionRef());
+                journal.recordResult(currentRequest, targetPackage, transactionResponse);
+                UpiMetrics.recordResult(targetPackage, launchStartNanos, transactionResponse);
             }
             
             if (listener != null) {
@@ -72,6 +84,13 @@ public class UpiPaymentLauncher {
                 // Don't call separate methods - they don't exist in interface
             }
         } else {
+            if (currentRequest != null) {
+                TransactionResponse cancelled = new TransactionResponse();
+                cancelled.setTransactionRef(currentRequest.getTransactionRef());
+                cancelled.setStatus(TransactionResponse.STATUS_CANCELLED);
+                journal.recordResult(currentRequest, targetPackage, cancelled);
+                UpiMetrics.recordResult(targetPackage, launchStartNanos, cancelled);
+            }
             if (listener != null) {
                 listener.onTransactionCancelled();
             }
@@ -85,6 +104,13 @@ public class UpiPaymentLauncher {
         return intentBuilder.getUpiStringForQr(request);
     }
 
+    /**
+     * Render the payment QR code as a sizePx x sizePx bitmap
+     */
+    public Bitmap generateQrCode(PaymentRequest request, int sizePx) throws WriterException {
+        return QrCodeGenerator.generate(intentBuilder.getUpiStringForQr(request), sizePx);
+    }
+
     /**
      * Launch payment with app chooser
      */
@@ -95,11 +121,27 @@ public class UpiPaymentLauncher {
     /**
      * Launch payment with specific UPI app
      */
-    public void startPayment(PaymentRequest request, String targetPackage) {
+    public void startPayment(final PaymentRequest request, final String targetPackage) {
         this.currentRequest = request;
         this.targetPackage = targetPackage;
 
-        List<UpiApp> installedApps = appDetector.getInstalledUpiApps();
+        // App detection runs off the main thread; launch continues on the main thread
+        appDetector.getInstalledUpiApps(new UpiCallback<List<UpiApp>>() {
+            @Override
+            public void onComplete(List<UpiApp> installedApps, Exception error) {
+                if (error != null) {
+                    Log.e(TAG, "Error detecting UPI apps", error);
+                    if (listener != null) {
+                        listener.onTransactionCancelled();
+                    }
+                    return;
+                }
+                launchPayment(request, targetPackage, installedApps);
+            }
+        });
+    }
+
+    private void launchPayment(PaymentRequest request, String targetPackage, List<UpiApp> installedApps) {
         Log.d(TAG, "Found " + installedApps.size() + " UPI apps installed");
         
         if (installedApps.isEmpty()) {
@@ -111,14 +153,7 @@ public class UpiPaymentLauncher {
         }
 
         if (targetPackage != null && !targetPackage.isEmpty()) {
-            boolean appFound = false;
-            for (UpiApp app : installedApps) {
-                if (app.getPackageName().equals(targetPackage)) {
-                    appFound = true;
-                    break;
-                }
-            }
-            if (!appFound) {
+            if (!appDetector.isUpiAppInstalled(targetPackage)) {
                 Log.d(TAG, "Target app not found: " + targetPackage);
                 if (listener != null) {
                     listener.onAppNotFound();
@@ -130,7 +165,10 @@ public class UpiPaymentLauncher {
         try {
             Uri upiUri = intentBuilder.buildUpiUri(request);
             Intent intent = intentBuilder.createIntent(upiUri, targetPackage);
+            launchStartNanos = UpiMetrics.start();
             launcher.launch(intent);
+            UpiMetrics.stop(UpiMetrics.LAUNCH_INTENT, UpiMetrics.target(targetPackage), launchStartNanos);
+            journal.recordLaunch(request, targetPackage);
         } catch (Exception e) {
             Log.e(TAG, "Error launching payment", e);
             if (listener != null) {
@@ -0,0 +1,44 @@
+package com.adamsnub.upilib.models;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import com.adamsnub.upilib.codec.UpiCodec;
+
+/**
+ * Carries a {@link PaymentRequest} in intent extras in its compact codec form
+ * instead of through Java serialization.
+ */
+public final class PaymentRequestParcel implements Parcelable {
+    private final PaymentRequest request;
+
+    public PaymentRequestParcel(PaymentRequest request) {
+        this.request = request;
+    }
+
+    public PaymentRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeByteArray(UpiCodec.encode(request));
+    }
+
+    public static final Creator<PaymentRequestParcel> CREATOR = new Creator<PaymentRequestParcel>() {
+        @Override
+        public PaymentRequestParcel createFromParcel(Parcel source) {
+            return new PaymentRequestParcel(UpiCodec.decodePaymentRequest(source.createByteArray()));
+        }
+
+        @Override
+        public PaymentRequestParcel[] newArray(int size) {
+            return new PaymentRequestParcel[size];
+        }
+    };
+}
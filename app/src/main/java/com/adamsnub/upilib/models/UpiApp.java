@@ -2,10 +2,16 @@ package com.adamsnub.upilib.models;
 
 import android.graphics.drawable.Drawable;
 
+import com.adamsnub.upilib.utils.UpiAppIconCache;
+
 public class UpiApp {
+    private static final long VERSION_UNKNOWN = Long.MIN_VALUE;
+
     private String name;
     private String packageName;
     private Drawable icon;
+    private UpiAppIconCache iconCache;
+    private volatile long versionCode = VERSION_UNKNOWN;
     private boolean isPreferred;
 
     public UpiApp(String name, String packageName, Drawable icon) {
@@ -15,6 +21,16 @@ public class UpiApp {
         this.isPreferred = false;
     }
 
+    /**
+     * Create an app whose icon is loaded on first use through the given cache
+     */
+    public UpiApp(String name, String packageName, UpiAppIconCache iconCache) {
+        this.name = name;
+        this.packageName = packageName;
+        this.iconCache = iconCache;
+        this.isPreferred = false;
+    }
+
     public String getName() {
         return name;
     }
@@ -24,7 +40,23 @@ public class UpiApp {
     }
 
     public Drawable getIcon() {
-        return icon;
+        if (icon != null || iconCache == null) {
+            return icon;
+        }
+        return getIcon(iconCache.getDefaultIconSize());
+    }
+
+    /**
+     * Get the icon downscaled to sizePx, loading and caching it if needed
+     */
+    public Drawable getIcon(int sizePx) {
+        if (iconCache == null) {
+            return icon;
+        }
+        if (versionCode == VERSION_UNKNOWN) {
+            versionCode = iconCache.getVersionCode(packageName);
+        }
+        return iconCache.getIcon(packageName, versionCode, sizePx);
     }
 
     public boolean isPreferred() {
@@ -34,4 +66,4 @@ public class UpiApp {
     public void setPreferred(boolean preferred) {
         isPreferred = preferred;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.adamsnub.upilib.qr;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.adamsnub.upilib.metrics.UpiMetrics;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Default rasterizer: encodes at module resolution and writes whole rows with
+ * {@link Bitmap#setPixels}, scaling each module to an integer number of pixels.
+ *
+ * The row buffer is reused between calls, so instances are synchronized.
+ */
+public class ModuleQrRasterizer implements QrRasterizer {
+    private static final int QUIET_ZONE_MODULES = 4;
+
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private final Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+    private int[] rowBuffer = new int[0];
+
+    public ModuleQrRasterizer() {
+        hints.put(EncodeHintType.MARGIN, QUIET_ZONE_MODULES);
+    }
+
+    @Override
+    public synchronized Bitmap render(String content, int sizePx) throws WriterException {
+        // Width and height of 0 return one matrix cell per module
+        long start = UpiMetrics.start();
+        BitMatrix matrix = writer.encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+        UpiMetrics.stop(UpiMetrics.QR_ENCODE, null, start);
+        start = UpiMetrics.start();
+        int modules = matrix.getWidth();
+        int size = Math.max(sizePx, modules);
+        int scale = size / modules;
+        int offset = (size - modules * scale) / 2;
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
+        bitmap.eraseColor(Color.WHITE);
+
+        int bandLength = size * scale;
+        if (rowBuffer.length < bandLength) {
+            rowBuffer = new int[bandLength];
+        }
+        int[] band = rowBuffer;
+
+        for (int y = 0; y < modules; y++) {
+            // Fill one pixel row for this module row, then repeat it for the module height
+            QrPixels.fillBand(matrix, y, scale, offset, size, band, Color.BLACK, Color.WHITE);
+            bitmap.setPixels(band, 0, size, 0, offset + y * scale, size, scale);
+        }
+        UpiMetrics.stop(UpiMetrics.QR_RASTER, null, start);
+        return bitmap;
+    }
+}
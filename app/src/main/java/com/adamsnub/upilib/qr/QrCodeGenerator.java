@@ -0,0 +1,78 @@
+package com.adamsnub.upilib.qr;
+
+import android.graphics.Bitmap;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiIntentBuilder;
+import com.google.zxing.WriterException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Public entry point for UPI QR codes. All QR bitmaps in the library go through
+ * the configured {@link QrRasterizer}, which can be replaced with {@link #setRasterizer}.
+ */
+public final class QrCodeGenerator {
+    private static volatile QrRasterizer rasterizer = new ModuleQrRasterizer();
+
+    private QrCodeGenerator() {}
+
+    public static QrRasterizer getRasterizer() {
+        return rasterizer;
+    }
+
+    public static void setRasterizer(QrRasterizer qrRasterizer) {
+        if (qrRasterizer == null) {
+            throw new IllegalArgumentException("Rasterizer must not be null");
+        }
+        rasterizer = qrRasterizer;
+    }
+
+    /**
+     * Render arbitrary QR content at sizePx x sizePx
+     */
+    public static Bitmap generate(String content, int sizePx) throws WriterException {
+        return rasterizer.render(content, sizePx);
+    }
+
+    /**
+     * Render the UPI payment QR for a request
+     */
+    public static Bitmap generate(PaymentRequest request, int sizePx) throws WriterException {
+        return generate(new UpiIntentBuilder().getUpiStringForQr(request), sizePx);
+    }
+
+    /**
+     * Encode the UPI payment QR for a request at module resolution
+     */
+    public static QrModuleMatrix generateMatrix(PaymentRequest request) throws WriterException {
+        return QrModuleMatrix.encode(new UpiIntentBuilder().getUpiStringForQr(request));
+    }
+
+    /**
+     * Write the payment QR as an SVG of sizeMm x sizeMm
+     */
+    public static void writeSvg(PaymentRequest request, double sizeMm, Writer out)
+            throws WriterException, IOException {
+        QrVectorWriter.writeSvg(generateMatrix(request), sizeMm, out);
+    }
+
+    /**
+     * Write the payment QR as a one-page PDF of sizePt x sizePt points
+     */
+    public static void writePdf(PaymentRequest request, double sizePt, OutputStream out)
+            throws WriterException, IOException {
+        QrVectorWriter.writePdf(generateMatrix(request), sizePt, out);
+    }
+
+    /**
+     * Encode the payment QR with a compact payload and the smallest version and
+     * best error-correction level for a display of displaySizePx
+     */
+    public static QrDensityOptimizer.Result generateOptimized(PaymentRequest request, int displaySizePx)
+            throws WriterException {
+        return new QrDensityOptimizer().encode(request, displaySizePx);
+    }
+}
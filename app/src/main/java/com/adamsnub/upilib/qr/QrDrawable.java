@@ -0,0 +1,107 @@
+package com.adamsnub.upilib.qr;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import com.adamsnub.upilib.metrics.UpiMetrics;
+
+/**
+ * Draws a {@link QrModuleMatrix} scaled to its bounds with nearest-neighbour
+ * filtering, backed by an ALPHA_8 bitmap holding one byte per module.
+ *
+ * Has no intrinsic size, so an ImageView stretches it to fill the view.
+ */
+public class QrDrawable extends Drawable {
+    private final QrModuleMatrix matrix;
+    private final Paint modulePaint = new Paint();
+    private final Paint backgroundPaint = new Paint();
+    private final Rect source = new Rect();
+    private final Rect target = new Rect();
+    private Bitmap moduleBitmap;
+
+    public QrDrawable(QrModuleMatrix matrix) {
+        this(matrix, Color.BLACK, Color.WHITE);
+    }
+
+    public QrDrawable(QrModuleMatrix matrix, int foregroundColor, int backgroundColor) {
+        this.matrix = matrix;
+        modulePaint.setColor(foregroundColor);
+        modulePaint.setFilterBitmap(false);
+        modulePaint.setAntiAlias(false);
+        backgroundPaint.setColor(backgroundColor);
+    }
+
+    public QrModuleMatrix getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        Rect bounds = getBounds();
+        if (bounds.isEmpty()) return;
+
+        canvas.drawRect(bounds, backgroundPaint);
+
+        // Scale by a whole number of pixels per module so modules stay sharp; bounds
+        // smaller than one pixel per module get the whole code shrunk to fit, not clipped
+        int modules = matrix.getSize();
+        int edge = Math.min(bounds.width(), bounds.height());
+        int drawn = edge >= modules ? modules * (edge / modules) : edge;
+        int left = bounds.left + (bounds.width() - drawn) / 2;
+        int top = bounds.top + (bounds.height() - drawn) / 2;
+
+        source.set(0, 0, modules, modules);
+        target.set(left, top, left + drawn, top + drawn);
+        canvas.drawBitmap(getModuleBitmap(), source, target, modulePaint);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        modulePaint.setAlpha(alpha);
+        backgroundPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        modulePaint.setColorFilter(colorFilter);
+        backgroundPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    private Bitmap getModuleBitmap() {
+        if (moduleBitmap == null) {
+            moduleBitmap = createAlphaBitmap(matrix);
+        }
+        return moduleBitmap;
+    }
+
+    /**
+     * Build a module-resolution ALPHA_8 bitmap where dark modules are opaque
+     */
+    public static Bitmap createAlphaBitmap(QrModuleMatrix matrix) {
+        long start = UpiMetrics.start();
+        int modules = matrix.getSize();
+        Bitmap bitmap = Bitmap.createBitmap(modules, modules, Bitmap.Config.ALPHA_8);
+        int[] row = new int[modules];
+        for (int y = 0; y < modules; y++) {
+            for (int x = 0; x < modules; x++) {
+                row[x] = matrix.get(x, y) ? Color.BLACK : Color.TRANSPARENT;
+            }
+            bitmap.setPixels(row, 0, modules, 0, y, modules, 1);
+        }
+        UpiMetrics.stop(UpiMetrics.QR_RASTER, null, start);
+        return bitmap;
+    }
+}
@@ -0,0 +1,12 @@
+package com.adamsnub.upilib.qr;
+
+import android.graphics.Bitmap;
+
+import com.google.zxing.WriterException;
+
+/**
+ * Turns QR content into a square bitmap of the requested size.
+ */
+public interface QrRasterizer {
+    Bitmap render(String content, int sizePx) throws WriterException;
+}
@@ -0,0 +1,143 @@
+package com.adamsnub.upilib.qr;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiCallback;
+import com.adamsnub.upilib.utils.UpiExecutors;
+import com.adamsnub.upilib.utils.UpiFuture;
+import com.adamsnub.upilib.utils.UpiIntentBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Renders QR bitmaps on a background thread and keeps recent ones in an LRU
+ * bounded by bitmap bytes, keyed by the canonical UPI string and size.
+ * Compact {@link QrModuleMatrix} codes are cached the same way by UPI string.
+ *
+ * Concurrent requests for the same key share one render.
+ */
+public class QrService {
+    private static final int MAX_CACHE_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_MATRIX_CACHE_BYTES = 256 * 1024;
+    private static volatile QrService instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final LruCache<String, QrModuleMatrix> matrixCache;
+    private final Map<String, UpiFuture<?>> inFlight = new HashMap<>();
+    private final UpiIntentBuilder intentBuilder = new UpiIntentBuilder();
+
+    QrService(int maxCacheBytes, int maxMatrixCacheBytes) {
+        this.cache = new LruCache<String, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        this.matrixCache = new LruCache<String, QrModuleMatrix>(maxMatrixCacheBytes) {
+            @Override
+            protected int sizeOf(String key, QrModuleMatrix matrix) {
+                return matrix.getByteCount();
+            }
+        };
+    }
+
+    public static QrService getInstance() {
+        QrService service = instance;
+        if (service == null) {
+            synchronized (QrService.class) {
+                service = instance;
+                if (service == null) {
+                    service = new QrService(MAX_CACHE_BYTES, MAX_MATRIX_CACHE_BYTES);
+                    instance = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Get the QR bitmap for a payment request, rendering it in the background if not cached
+     */
+    public UpiFuture<Bitmap> getQrCode(PaymentRequest request, int sizePx) {
+        return getQrCode(intentBuilder.getUpiStringForQr(request), sizePx);
+    }
+
+    /**
+     * Get the QR bitmap for a UPI string, rendering it in the background if not cached
+     */
+    public UpiFuture<Bitmap> getQrCode(final String upiString, final int sizePx) {
+        return load(cache, cacheKey(upiString, sizePx), new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() throws Exception {
+                return QrCodeGenerator.generate(upiString, sizePx);
+            }
+        });
+    }
+
+    /**
+     * Get the compact module matrix for a payment request, encoding it in the background if not cached
+     */
+    public UpiFuture<QrModuleMatrix> getQrMatrix(PaymentRequest request) {
+        return getQrMatrix(intentBuilder.getUpiStringForQr(request));
+    }
+
+    /**
+     * Get the compact module matrix for a UPI string, encoding it in the background if not cached.
+     * Wrap the result in a {@link QrDrawable} to display it at any size.
+     */
+    public UpiFuture<QrModuleMatrix> getQrMatrix(final String upiString) {
+        return load(matrixCache, upiString, new Callable<QrModuleMatrix>() {
+            @Override
+            public QrModuleMatrix call() throws Exception {
+                return QrModuleMatrix.encode(upiString);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> UpiFuture<V> load(final LruCache<String, V> lruCache, String key, Callable<V> task) {
+        V cached = lruCache.get(key);
+        if (cached != null) {
+            return UpiFuture.completed(cached);
+        }
+
+        // Track bitmap and matrix renders of the same string separately
+        final String flightKey = (lruCache == cache ? "b:" : "m:") + key;
+        final UpiFuture<V> future;
+        synchronized (inFlight) {
+            UpiFuture<V> running = (UpiFuture<V>) inFlight.get(flightKey);
+            if (running != null) {
+                return running;
+            }
+            future = UpiFuture.submit(UpiExecutors.background(), task);
+            inFlight.put(flightKey, future);
+        }
+
+        final String cacheKey = key;
+        future.whenComplete(new UpiCallback<V>() {
+            @Override
+            public void onComplete(V value, Exception error) {
+                if (value != null) {
+                    lruCache.put(cacheKey, value);
+                }
+                synchronized (inFlight) {
+                    inFlight.remove(flightKey);
+                }
+            }
+        });
+        return future;
+    }
+
+    public void clear() {
+        cache.evictAll();
+        matrixCache.evictAll();
+    }
+
+    private static String cacheKey(String upiString, int sizePx) {
+        return sizePx + ":" + upiString;
+    }
+}
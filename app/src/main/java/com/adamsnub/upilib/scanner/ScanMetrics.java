@@ -0,0 +1,65 @@
+package com.adamsnub.upilib.scanner;
+
+/**
+ * Snapshot of {@link UpiQrScanner} counters. Latencies cover decoding only, from
+ * the worker picking up a frame to ZXing returning.
+ */
+public class ScanMetrics {
+    private final long framesSubmitted;
+    private final long framesDecoded;
+    private final long framesDropped;
+    private final long codesFound;
+    private final long lastDecodeNanos;
+    private final long maxDecodeNanos;
+    private final long totalDecodeNanos;
+
+    ScanMetrics(long framesSubmitted, long framesDecoded, long framesDropped, long codesFound,
+                long lastDecodeNanos, long maxDecodeNanos, long totalDecodeNanos) {
+        this.framesSubmitted = framesSubmitted;
+        this.framesDecoded = framesDecoded;
+        this.framesDropped = framesDropped;
+        this.codesFound = codesFound;
+        this.lastDecodeNanos = lastDecodeNanos;
+        this.maxDecodeNanos = maxDecodeNanos;
+        this.totalDecodeNanos = totalDecodeNanos;
+    }
+
+    public long getFramesSubmitted() {
+        return framesSubmitted;
+    }
+
+    public long getFramesDecoded() {
+        return framesDecoded;
+    }
+
+    /**
+     * Frames replaced by a newer frame before the worker reached them
+     */
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    public long getCodesFound() {
+        return codesFound;
+    }
+
+    public long getLastDecodeNanos() {
+        return lastDecodeNanos;
+    }
+
+    public long getMaxDecodeNanos() {
+        return maxDecodeNanos;
+    }
+
+    public long getAverageDecodeNanos() {
+        return framesDecoded == 0 ? 0 : totalDecodeNanos / framesDecoded;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanMetrics{submitted=" + framesSubmitted + ", decoded=" + framesDecoded
+                + ", dropped=" + framesDropped + ", found=" + codesFound
+                + ", avgDecodeMs=" + getAverageDecodeNanos() / 1000000.0
+                + ", maxDecodeMs=" + maxDecodeNanos / 1000000.0 + "}";
+    }
+}
@@ -0,0 +1,253 @@
+package com.adamsnub.upilib.scanner;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import com.adamsnub.upilib.parser.ScannedPayment;
+import com.adamsnub.upilib.parser.UpiUriParser;
+import com.adamsnub.upilib.utils.UpiExecutors;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decodes UPI QR codes from camera preview frames on a dedicated worker thread.
+ *
+ * {@link #submitFrame} copies the Y plane inside the region of interest into a
+ * pooled buffer and returns at once, so the caller can recycle its preview
+ * buffer. Only the latest frame is kept: a frame that arrives while another is
+ * still waiting replaces it and counts as dropped. Results are delivered on the
+ * main thread, once per distinct code until the scanner is restarted.
+ */
+public class UpiQrScanner {
+    private static final String TAG = "UpiQrScanner";
+    private static final int BUFFER_COUNT = 3;
+
+    public interface Callback {
+        /**
+         * A UPI payment code was found. Static merchant codes carry no amount or
+         * transactionRef; set them on {@link ScannedPayment#toRequestBuilder()} before building.
+         */
+        void onPaymentScanned(ScannedPayment payment, String content);
+
+        /**
+         * A QR code was found but is not a valid UPI payment request
+         */
+        void onInvalidCode(String content, Exception error);
+    }
+
+    private final Callback callback;
+    private final ArrayBlockingQueue<Frame> freeFrames = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    private final AtomicReference<Frame> pendingFrame = new AtomicReference<>();
+    private final AtomicBoolean decodeScheduled = new AtomicBoolean();
+    private final QRCodeReader reader = new QRCodeReader();
+    private final Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+    private final Runnable decodeTask = new Runnable() {
+        @Override
+        public void run() {
+            decodePending();
+        }
+    };
+
+    private final AtomicLong framesSubmitted = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private long framesDecoded;
+    private long codesFound;
+    private long lastDecodeNanos;
+    private long maxDecodeNanos;
+    private long totalDecodeNanos;
+
+    private volatile Rect regionOfInterest;
+    private HandlerThread workerThread;
+    private volatile Handler worker;
+    private volatile String lastContent;
+
+    public UpiQrScanner(Callback callback) {
+        this.callback = callback;
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(BarcodeFormat.QR_CODE));
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            freeFrames.add(new Frame());
+        }
+    }
+
+    public synchronized void start() {
+        if (workerThread != null) return;
+        lastContent = null;
+        workerThread = new HandlerThread("upi-qr-scanner");
+        workerThread.start();
+        worker = new Handler(workerThread.getLooper());
+    }
+
+    public synchronized void stop() {
+        if (workerThread == null) return;
+        worker = null;
+        workerThread.quitSafely();
+        workerThread = null;
+        Frame pending = pendingFrame.getAndSet(null);
+        if (pending != null) {
+            freeFrames.offer(pending);
+        }
+        decodeScheduled.set(false);
+    }
+
+    /**
+     * Restrict decoding to a region of the frame (in frame pixel coordinates), or null for the whole frame
+     */
+    public void setRegionOfInterest(Rect roi) {
+        this.regionOfInterest = roi != null ? new Rect(roi) : null;
+    }
+
+    /**
+     * Queue an NV21/YUV_420 frame; only the Y plane is read. Never blocks.
+     */
+    public void submitFrame(byte[] yuv, int width, int height) {
+        Handler handler = worker;
+        if (handler == null) return;
+        framesSubmitted.incrementAndGet();
+
+        Frame frame = freeFrames.poll();
+        if (frame == null) {
+            // Every buffer is busy: take over the waiting frame rather than block
+            frame = pendingFrame.getAndSet(null);
+            if (frame == null) {
+                framesDropped.incrementAndGet();
+                return;
+            }
+            framesDropped.incrementAndGet();
+        }
+        frame.load(yuv, width, height, regionOfInterest);
+
+        Frame replaced = pendingFrame.getAndSet(frame);
+        if (replaced != null) {
+            framesDropped.incrementAndGet();
+            freeFrames.offer(replaced);
+        }
+        if (decodeScheduled.compareAndSet(false, true)) {
+            handler.post(decodeTask);
+        }
+    }
+
+    public synchronized ScanMetrics getMetrics() {
+        return new ScanMetrics(framesSubmitted.get(), framesDecoded, framesDropped.get(), codesFound,
+                lastDecodeNanos, maxDecodeNanos, totalDecodeNanos);
+    }
+
+    private void decodePending() {
+        decodeScheduled.set(false);
+        Frame frame;
+        while ((frame = pendingFrame.getAndSet(null)) != null) {
+            try {
+                decode(frame);
+            } finally {
+                freeFrames.offer(frame);
+            }
+        }
+    }
+
+    private void decode(Frame frame) {
+        long start = System.nanoTime();
+        String content = null;
+        try {
+            // Frame holds only the cropped Y plane, so the source reads it without copying
+            PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(
+                    frame.luminance, frame.width, frame.height, 0, 0, frame.width, frame.height, false);
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), hints);
+            content = result.getText();
+        } catch (ReaderException e) {
+            // No QR code in this frame
+        } finally {
+            reader.reset();
+        }
+        recordDecode(System.nanoTime() - start, content != null);
+
+        if (content != null && !content.equals(lastContent)) {
+            lastContent = content;
+            deliver(content);
+        }
+    }
+
+    private synchronized void recordDecode(long nanos, boolean found) {
+        framesDecoded++;
+        if (found) codesFound++;
+        lastDecodeNanos = nanos;
+        totalDecodeNanos += nanos;
+        if (nanos > maxDecodeNanos) maxDecodeNanos = nanos;
+    }
+
+    private void deliver(final String content) {
+        ScannedPayment payment = null;
+        Exception error = null;
+        try {
+            payment = UpiUriParser.parse(content);
+        } catch (IllegalArgumentException e) {
+            error = e;
+        }
+
+        final ScannedPayment scanned = payment;
+        final Exception parseError = error;
+        UpiExecutors.main().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (scanned != null) {
+                    callback.onPaymentScanned(scanned, content);
+                } else {
+                    Log.d(TAG, "Scanned non-UPI or malformed code: " + parseError.getMessage());
+                    callback.onInvalidCode(content, parseError);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pooled luminance buffer holding the cropped Y plane of one frame
+     */
+    private static class Frame {
+        byte[] luminance = new byte[0];
+        int width;
+        int height;
+
+        void load(byte[] yuv, int frameWidth, int frameHeight, Rect roi) {
+            int left = 0;
+            int top = 0;
+            int cropWidth = frameWidth;
+            int cropHeight = frameHeight;
+            if (roi != null) {
+                left = Math.max(0, roi.left);
+                top = Math.max(0, roi.top);
+                cropWidth = Math.min(frameWidth, roi.right) - left;
+                cropHeight = Math.min(frameHeight, roi.bottom) - top;
+                if (cropWidth <= 0 || cropHeight <= 0) {
+                    left = 0;
+                    top = 0;
+                    cropWidth = frameWidth;
+                    cropHeight = frameHeight;
+                }
+            }
+
+            int needed = cropWidth * cropHeight;
+            if (luminance.length < needed) {
+                luminance = new byte[needed];
+            }
+            for (int y = 0; y < cropHeight; y++) {
+                System.arraycopy(yuv, (top + y) * frameWidth + left, luminance, y * cropWidth, cropWidth);
+            }
+            width = cropWidth;
+            height = cropHeight;
+        }
+    }
+}
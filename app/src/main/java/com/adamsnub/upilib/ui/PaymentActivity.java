@@ -2,9 +2,8 @@ package com.adamsnub.upilib.ui;
 
 import android.app.Activity;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.Color;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.widget.Button;
 import android.widget.ImageView;
@@ -13,21 +12,28 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.IntentCompat;
 
 import com.adamsnub.upilib.R;
-import com.adamsnub.upilib.Singleton;
 import com.adamsnub.upilib.detector.UpiAppDetector;
+import com.adamsnub.upilib.journal.TransactionJournal;
+import com.adamsnub.upilib.launcher.PaymentListenerRegistry;
 import com.adamsnub.upilib.launcher.PaymentStatusListener;
+import com.adamsnub.upilib.launcher.PendingStatusPoller;
+import com.adamsnub.upilib.metrics.UpiMetrics;
 import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.PaymentRequestParcel;
 import com.adamsnub.upilib.models.TransactionResponse;
 import com.adamsnub.upilib.models.UpiApp;
 import com.adamsnub.upilib.parser.UpiResponseParser;
+import com.adamsnub.upilib.qr.QrDrawable;
+import com.adamsnub.upilib.qr.QrModuleMatrix;
+import com.adamsnub.upilib.qr.QrService;
+import com.adamsnub.upilib.utils.UpiCallback;
 import com.adamsnub.upilib.utils.UpiIntentBuilder;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.MultiFormatWriter;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
 
+import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 
 public class PaymentActivity extends AppCompatActivity {
@@ -40,6 +46,8 @@ public class PaymentActivity extends AppCompatActivity {
     private LinearLayout qrLayout;
     private Button btnRetryIntent;
     private static final int UPI_PAYMENT_REQUEST = 1001;
+    private static final String EXTRA_PAYMENT_REQUEST = "payment_request";
+    private long launchStartNanos;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,7 +61,7 @@ public class PaymentActivity extends AppCompatActivity {
         tvQrInstruction = findViewById(R.id.tvQrInstruction);
         btnRetryIntent = findViewById(R.id.btnRetryIntent);
 
-        paymentRequest = (PaymentRequest) getIntent().getSerializableExtra("payment_request");
+        paymentRequest = readPaymentRequest(getIntent());
         intentBuilder = new UpiIntentBuilder();
 
         if (paymentRequest == null) {
@@ -72,12 +80,43 @@ public class PaymentActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * The request from the launching intent; Serializable extras from older callers are still accepted
+     */
+    private static PaymentRequest readPaymentRequest(Intent intent) {
+        PaymentRequestParcel parcel = IntentCompat.getParcelableExtra(intent, EXTRA_PAYMENT_REQUEST,
+                PaymentRequestParcel.class);
+        if (parcel != null) {
+            return parcel.getRequest();
+        }
+        return readSerializableRequest(intent);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static PaymentRequest readSerializableRequest(Intent intent) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            return intent.getSerializableExtra(EXTRA_PAYMENT_REQUEST, PaymentRequest.class);
+        }
+        Serializable extra = intent.getSerializableExtra(EXTRA_PAYMENT_REQUEST);
+        return extra instanceof PaymentRequest ? (PaymentRequest) extra : null;
+    }
+
     private void launchUpiAppDirectly() {
         UpiAppDetector detector = new UpiAppDetector(this);
-        List<UpiApp> apps = detector.getInstalledUpiApps();
+        detector.getInstalledUpiApps(new UpiCallback<List<UpiApp>>() {
+            @Override
+            public void onComplete(List<UpiApp> apps, Exception error) {
+                if (isFinishing()) {
+                    return;
+                }
+                launchUpiAppDirectly(error != null ? Collections.<UpiApp>emptyList() : apps);
+            }
+        });
+    }
 
+    private void launchUpiAppDirectly(List<UpiApp> apps) {
         if (apps.isEmpty()) {
-            PaymentStatusListener listener = Singleton.getListener();
+            PaymentStatusListener listener = PaymentListenerRegistry.get(paymentRequest.getTransactionRef());
             if (listener != null) {
                 listener.onAppNotFound();
             }
@@ -96,7 +135,10 @@ public class PaymentActivity extends AppCompatActivity {
             
             Intent intent = new Intent(Intent.ACTION_VIEW, uri);
             
+            launchStartNanos = UpiMetrics.start();
             startActivityForResult(Intent.createChooser(intent, "Pay with UPI app"), UPI_PAYMENT_REQUEST);
+            UpiMetrics.stop(UpiMetrics.LAUNCH_INTENT, UpiMetrics.CHOOSER, launchStartNanos);
+            TransactionJournal.getInstance(this).recordLaunch(paymentRequest, null);
             tvResult.setText("Launching UPI app...");
             
         } catch (Exception e) {
@@ -107,38 +149,32 @@ public class PaymentActivity extends AppCompatActivity {
     }
 
     private void showQrFallback() {
-        try {
-            String upiString = intentBuilder.buildUpiUri(paymentRequest).toString();
-            Bitmap qrCode = generateQrCode(upiString, 500, 500);
-            
-            ivQrCode.setImageBitmap(qrCode);
-            tvQrInstruction.setText("Scan this QR code with any UPI app");
-            qrLayout.setVisibility(android.view.View.VISIBLE);
-            progressBar.setVisibility(android.view.View.GONE);
-            tvResult.setText("Intent payment failed. Use QR instead.");
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            tvResult.setText("Error: " + e.getMessage());
-        }
+        showQrFallback("Intent payment failed. Use QR instead.", "Scan this QR code with any UPI app");
     }
 
-    private Bitmap generateQrCode(String content, int width, int height) {
-        try {
-            MultiFormatWriter writer = new MultiFormatWriter();
-            BitMatrix matrix = writer.encode(content, BarcodeFormat.QR_CODE, width, height);
-            
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bitmap.setPixel(x, y, matrix.get(x, y) ? Color.BLACK : Color.WHITE);
-                }
-            }
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
-        }
+    private void showQrFallback(final String resultText, final String instructionText) {
+        // Encoded off the main thread at module resolution and scaled when drawn;
+        // repeat fallbacks for the same request hit the cache
+        QrService.getInstance().getQrMatrix(paymentRequest)
+                .whenCompleteOnMain(new UpiCallback<QrModuleMatrix>() {
+                    @Override
+                    public void onComplete(QrModuleMatrix qrCode, Exception error) {
+                        if (isFinishing()) {
+                            return;
+                        }
+                        if (error != null) {
+                            error.printStackTrace();
+                            tvResult.setText("Error: " + error.getMessage());
+                            return;
+                        }
+
+                        ivQrCode.setImageDrawable(new QrDrawable(qrCode));
+                        tvQrInstruction.setText(instructionText);
+                        qrLayout.setVisibility(android.view.View.VISIBLE);
+                        progressBar.setVisibility(android.view.View.GONE);
+                        tvResult.setText(resultText);
+                    }
+                });
     }
 
     @Override
@@ -146,7 +182,7 @@ public class PaymentActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
 
         if (requestCode == UPI_PAYMENT_REQUEST) {
-            PaymentStatusListener listener = Singleton.getListener();
+            PaymentStatusListener listener = PaymentListenerRegistry.get(paymentRequest.getTransactionRef());
             
             // Hide progress bar
             progressBar.setVisibility(android.view.View.GONE);
@@ -154,6 +190,18 @@ public class PaymentActivity extends AppCompatActivity {
             if (resultCode == Activity.RESULT_OK && data != null) {
                 String response = data.getStringExtra("response");
                 TransactionResponse transactionResponse = UpiResponseParser.parse(response);
+                transactionResponse.setTransactionRef(paymentRequest.getTransactionRef());
+                TransactionJournal.getInstance(this).recordResult(paymentRequest, null, transactionResponse);
+                UpiMetrics.recordResult(null, launchStartNanos, transactionResponse);
+
+                // Pending results are followed up by the poller when one is installed;
+                // the listener then hears the final outcome instead of a cancellation
+                PendingStatusPoller poller = PendingStatusPoller.getDefault();
+                boolean polling = poller != null
+                        && (transactionResponse.isSubmitted() || transactionResponse.isUnknown());
+                if (polling) {
+                    poller.enqueue(paymentRequest.getTransactionRef());
+                }
                 
                 if (listener != null) {
                     if (transactionResponse.isSuccess()) {
@@ -163,12 +211,23 @@ public class PaymentActivity extends AppCompatActivity {
                     } else if (transactionResponse.isFailure()) {
                         listener.onTransactionCancelled();
                         tvResult.setText("Payment failed. Please check your PIN.");
+                    } else if (polling) {
+                        tvResult.setText("Payment pending. Checking transaction status...");
                     } else if (transactionResponse.isSubmitted()) {
                         listener.onTransactionCancelled();
                         tvResult.setText("Payment pending. Check transaction status.");
+                    } else if (transactionResponse.isUnknown()) {
+                        listener.onTransactionCancelled();
+                        tvResult.setText("Payment status unknown (code " + transactionResponse.getResponseCode()
+                                + "). Check transaction status.");
                     }
                 }
                 
+                // Final outcomes release the per-transaction listener; pending ones keep it
+                if (transactionResponse.isSuccess() || transactionResponse.isFailure()) {
+                    PaymentListenerRegistry.remove(paymentRequest.getTransactionRef());
+                }
+                
                 // Close after 1 second
                 new android.os.Handler().postDelayed(new Runnable() {
                     @Override
@@ -179,14 +238,18 @@ public class PaymentActivity extends AppCompatActivity {
                 
             } else {
                 // Payment failed or was cancelled
+                TransactionResponse cancelled = new TransactionResponse();
+                cancelled.setTransactionRef(paymentRequest.getTransactionRef());
+                cancelled.setStatus(TransactionResponse.STATUS_CANCELLED);
+                TransactionJournal.getInstance(this).recordResult(paymentRequest, null, cancelled);
+                UpiMetrics.recordResult(null, launchStartNanos, cancelled);
                 if (listener != null) {
                     listener.onTransactionCancelled();
                 }
                 tvResult.setText("Payment failed or cancelled");
                 
                 // Show QR as fallback option
-                qrLayout.setVisibility(android.view.View.VISIBLE);
-                tvQrInstruction.setText("Try scanning QR code instead");
+                showQrFallback("Payment failed or cancelled", "Try scanning QR code instead");
             }
         }
     }
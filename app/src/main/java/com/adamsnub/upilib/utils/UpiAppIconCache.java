@@ -0,0 +1,107 @@
+package com.adamsnub.upilib.utils;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.LruCache;
+
+/**
+ * Bounded LRU cache of downscaled UPI app icons.
+ *
+ * Icons are rasterized at the requested size on first use and keyed by
+ * package, version code and size, so an app update never serves a stale icon.
+ */
+public class UpiAppIconCache {
+    private static final int DEFAULT_ICON_SIZE_DP = 48;
+    private static final int MAX_CACHE_BYTES = 1024 * 1024;
+    private static volatile UpiAppIconCache instance;
+
+    private final Context context;
+    private final LruCache<String, Bitmap> cache;
+
+    private UpiAppIconCache(Context context) {
+        this.context = context.getApplicationContext();
+        this.cache = new LruCache<String, Bitmap>(MAX_CACHE_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    public static UpiAppIconCache getInstance(Context context) {
+        UpiAppIconCache iconCache = instance;
+        if (iconCache == null) {
+            synchronized (UpiAppIconCache.class) {
+                iconCache = instance;
+                if (iconCache == null) {
+                    iconCache = new UpiAppIconCache(context);
+                    instance = iconCache;
+                }
+            }
+        }
+        return iconCache;
+    }
+
+    /**
+     * Default icon edge length in pixels for the current display density
+     */
+    public int getDefaultIconSize() {
+        return Math.round(DEFAULT_ICON_SIZE_DP * context.getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * Look up the installed version code, or -1 if the package is gone
+     */
+    public long getVersionCode(String packageName) {
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(packageName, 0);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                return info.getLongVersionCode();
+            }
+            return info.versionCode;
+        } catch (PackageManager.NameNotFoundException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get the icon for a package rasterized to sizePx, or null if it can't be loaded
+     */
+    public Drawable getIcon(String packageName, long versionCode, int sizePx) {
+        String key = packageName + ':' + versionCode + ':' + sizePx;
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            bitmap = loadBitmap(packageName, sizePx);
+            if (bitmap == null) {
+                return null;
+            }
+            cache.put(key, bitmap);
+        }
+        return new BitmapDrawable(context.getResources(), bitmap);
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    private Bitmap loadBitmap(String packageName, int sizePx) {
+        Drawable drawable;
+        try {
+            drawable = context.getPackageManager().getApplicationIcon(packageName);
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        drawable.setBounds(0, 0, sizePx, sizePx);
+        drawable.draw(canvas);
+        return bitmap;
+    }
+}
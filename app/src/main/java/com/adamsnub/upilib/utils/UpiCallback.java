@@ -0,0 +1,8 @@
+package com.adamsnub.upilib.utils;
+
+/**
+ * Receives the outcome of a {@link UpiFuture}: either a result or the error that prevented it.
+ */
+public interface UpiCallback<T> {
+    void onComplete(T result, Exception error);
+}
@@ -0,0 +1,62 @@
+package com.adamsnub.upilib.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Library-owned executors for work that must stay off the main thread.
+ */
+public final class UpiExecutors {
+    private static final int BACKGROUND_THREADS = 2;
+
+    private static final ExecutorService BACKGROUND_POOL = createBackgroundExecutor();
+    // Callers get only execute(), so nobody can shut the shared pool down
+    private static final Executor BACKGROUND = BACKGROUND_POOL::execute;
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final Executor MAIN = MAIN_HANDLER::post;
+
+    private UpiExecutors() {}
+
+    /**
+     * Shared background executor; idle threads time out so the pool costs nothing when unused
+     */
+    public static Executor background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * Executor that posts to the main thread
+     */
+    public static Executor main() {
+        return MAIN;
+    }
+
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    private static ExecutorService createBackgroundExecutor() {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "upi-background-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(BACKGROUND_THREADS, BACKGROUND_THREADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,158 @@
+package com.adamsnub.upilib.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Minimal future for results computed on {@link UpiExecutors}.
+ *
+ * Callbacks can be attached before or after completion and run exactly once,
+ * either inline or on a chosen executor such as the main thread.
+ */
+public class UpiFuture<T> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final List<Runnable> pending = new ArrayList<>();
+    private T result;
+    private Throwable error;
+    private boolean completed;
+
+    public static <T> UpiFuture<T> completed(T value) {
+        UpiFuture<T> future = new UpiFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * Run the task on the executor and return a future for its result
+     */
+    public static <T> UpiFuture<T> submit(Executor executor, final Callable<T> task) {
+        final UpiFuture<T> future = new UpiFuture<>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(task.call());
+                } catch (Exception e) {
+                    future.fail(e);
+                } catch (Throwable t) {
+                    // Fail the waiters before the Error reaches the thread, or they would wait forever
+                    future.finish(null, t);
+                    throw t;
+                }
+            }
+        });
+        return future;
+    }
+
+    public void complete(T value) {
+        finish(value, null);
+    }
+
+    public void fail(Exception e) {
+        finish(null, e);
+    }
+
+    public synchronized boolean isDone() {
+        return completed;
+    }
+
+    /**
+     * Block until the result is available; never call this on the main thread
+     */
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return resultOrThrow();
+    }
+
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return resultOrThrow();
+    }
+
+    /**
+     * Invoke the callback on whichever thread completes the future
+     */
+    public UpiFuture<T> whenComplete(final UpiCallback<T> callback) {
+        Runnable notify;
+        synchronized (this) {
+            notify = new Runnable() {
+                @Override
+                public void run() {
+                    callback.onComplete(result, callbackError());
+                }
+            };
+            if (!completed) {
+                pending.add(notify);
+                return this;
+            }
+        }
+        notify.run();
+        return this;
+    }
+
+    /**
+     * Invoke the callback on the given executor
+     */
+    public UpiFuture<T> whenComplete(final Executor executor, final UpiCallback<T> callback) {
+        return whenComplete(new UpiCallback<T>() {
+            @Override
+            public void onComplete(final T value, final Exception e) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onComplete(value, e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Invoke the callback on the main thread, inline if already there and done
+     */
+    public UpiFuture<T> whenCompleteOnMain(UpiCallback<T> callback) {
+        if (isDone() && UpiExecutors.isMainThread()) {
+            return whenComplete(callback);
+        }
+        return whenComplete(UpiExecutors.main(), callback);
+    }
+
+    private void finish(T value, Throwable e) {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (completed) return;
+            result = value;
+            error = e;
+            completed = true;
+            toRun = new ArrayList<>(pending);
+            pending.clear();
+        }
+        done.countDown();
+        for (Runnable runnable : toRun) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * Callbacks take an Exception, so an Error is handed over wrapped
+     */
+    private Exception callbackError() {
+        if (error == null || error instanceof Exception) return (Exception) error;
+        return new ExecutionException(error);
+    }
+
+    private synchronized T resultOrThrow() throws ExecutionException {
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+        return result;
+    }
+}
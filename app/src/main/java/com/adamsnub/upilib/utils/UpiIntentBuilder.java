@@ -3,39 +3,39 @@ package com.adamsnub.upilib.utils;
 import android.content.Intent;
 import android.net.Uri;
 
+import com.adamsnub.upilib.metrics.UpiMetrics;
 import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.validation.UpiValidator;
 
 public class UpiIntentBuilder {
     
+    private static final ThreadLocal<UpiStringEncoder> ENCODER = new ThreadLocal<UpiStringEncoder>() {
+        @Override
+        protected UpiStringEncoder initialValue() {
+            return new UpiStringEncoder();
+        }
+    };
+    
     public Uri buildUpiUri(PaymentRequest request) {
         return buildUpiUri(request, null);
     }
     
     public Uri buildUpiUri(PaymentRequest request, String merchantCode) {
-        Uri.Builder builder = new Uri.Builder();
-        builder.scheme("upi")
-                .authority("pay")
-                .appendQueryParameter("pa", request.getPayeeVpa())
-                .appendQueryParameter("pn", request.getPayeeName())
-                .appendQueryParameter("am", request.getAmount())
-                .appendQueryParameter("tr", request.getTransactionRef())
-                .appendQueryParameter("cu", request.getCurrency())
-                .appendQueryParameter("mode", "05");
-        
-        // Add merchant code if provided
-        if (merchantCode != null && !merchantCode.isEmpty()) {
-            builder.appendQueryParameter("mc", merchantCode);
-        }
-        
-        if (request.getTransactionNote() != null && !request.getTransactionNote().isEmpty()) {
-            builder.appendQueryParameter("tn", request.getTransactionNote());
-        }
-        
-        return builder.build();
+        long start = UpiMetrics.start();
+        Uri uri = Uri.parse(getUpiString(request, merchantCode));
+        UpiMetrics.stop(UpiMetrics.BUILD_URI, null, start);
+        return uri;
+    }
+    
+    /**
+     * Canonical upi://pay string, built without android.net.Uri
+     */
+    public String getUpiString(PaymentRequest request, String merchantCode) {
+        return ENCODER.get().encode(request, merchantCode);
     }
     
     public String getUpiStringForQr(PaymentRequest request) {
-        return buildUpiUri(request).toString();
+        return getUpiString(request, null);
     }
     
     public Intent createIntent(Uri upiUri, String targetPackage) {
@@ -52,12 +52,10 @@ public class UpiIntentBuilder {
     }
     
     public boolean isValidAmount(String amount) {
-        if (amount == null || amount.isEmpty()) return false;
-        return amount.matches("^\\d+(\\.\\d{1,2})?$");
+        return UpiValidator.isValidAmount(amount);
     }
     
     public boolean isValidVpa(String vpa) {
-        if (vpa == null || vpa.isEmpty()) return false;
-        return vpa.matches("^[a-zA-Z0-9._-]+@[a-zA-Z0-9]+$");
+        return UpiValidator.isValidVpa(vpa);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,291 @@
+package com.adamsnub.upilib.journal;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TransactionJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TransactionJournal journal;
+
+    @After
+    public void tearDown() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    public void replaysLaunchesAndResultsAfterReopen() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir);
+        journal.recordLaunch(request("ORD1"), "com.phonepe.app");
+        journal.recordResult(null, null, response("ORD1", TransactionResponse.STATUS_SUCCESS, "TXN1"));
+        journal.recordLaunch(request("ORD2"), null);
+        journal.close();
+
+        journal = TransactionJournal.open(dir);
+        assertEquals(2, journal.size());
+
+        JournalEntry first = journal.findByTransactionRef("ORD1");
+        assertEquals(JournalEntry.Type.RESULT, first.getType());
+        assertEquals(TransactionResponse.STATUS_SUCCESS, first.getStatus());
+        assertEquals("shop@okaxis", first.getPayeeVpa());
+        assertEquals("com.phonepe.app", first.getTargetPackage());
+        assertEquals("TXN1", first.toTransactionResponse().getTransactionId());
+        assertSame(first, journal.findResultByTransactionRef("ORD1"));
+        assertSame(first, journal.findByTransactionId("TXN1"));
+
+        JournalEntry second = journal.findByTransactionRef("ORD2");
+        assertEquals(JournalEntry.Type.LAUNCH, second.getType());
+        assertNull(second.toTransactionResponse());
+        assertNull(journal.findResultByTransactionRef("ORD2"));
+        assertEquals(Arrays.asList(first, second), journal.latestEntries());
+
+        journal.recordLaunch(request("ORD3"), null);
+        journal.flush();
+        assertTrue(journal.findByTransactionRef("ORD3").getSequence() > second.getSequence());
+    }
+
+    @Test
+    public void indexesKeepTheLatestEntryOfEachKind() throws Exception {
+        journal = TransactionJournal.open(folder.getRoot());
+        journal.recordLaunch(request("ORD1"), null);
+        journal.recordResult(request("ORD1"), null, response("ORD1", TransactionResponse.STATUS_FAILURE, "TXN1"));
+        // A retry launches the same ref again after its first result
+        journal.recordLaunch(request("ORD1"), "in.org.npci.upiapp");
+        journal.flush();
+
+        JournalEntry latest = journal.findByTransactionRef("ORD1");
+        JournalEntry result = journal.findResultByTransactionRef("ORD1");
+        assertEquals(JournalEntry.Type.LAUNCH, latest.getType());
+        assertEquals(TransactionResponse.STATUS_FAILURE, result.getStatus());
+        assertTrue(result.getSequence() < latest.getSequence());
+        assertSame(result, journal.findByTransactionId("TXN1"));
+
+        journal.recordResult(null, null, response("ORD1", TransactionResponse.STATUS_SUCCESS, "TXN2"));
+        journal.flush();
+        JournalEntry retried = journal.findByTransactionRef("ORD1");
+        assertSame(retried, journal.findResultByTransactionRef("ORD1"));
+        assertEquals("in.org.npci.upiapp", retried.getTargetPackage());
+        assertSame(retried, journal.findByTransactionId("TXN2"));
+        assertSame(result, journal.findByTransactionId("TXN1"));
+        assertNull(journal.findByTransactionId("TXN3"));
+        assertNull(journal.findByTransactionRef(null));
+    }
+
+    @Test
+    public void truncatesATornTail() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir);
+        for (int i = 0; i < 5; i++) {
+            journal.recordLaunch(request("ORD" + i), null);
+        }
+        journal.close();
+        File segment = onlySegment(dir);
+        long length = segment.length();
+
+        // A header promising 100 bytes followed by only three of them
+        try (FileOutputStream out = new FileOutputStream(segment, true)) {
+            out.write(new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 1, 2, 3});
+        }
+
+        journal = TransactionJournal.open(dir);
+        assertEquals(5, journal.size());
+        assertEquals(length, segment.length());
+
+        journal.recordLaunch(request("ORD5"), null);
+        journal.close();
+        journal = TransactionJournal.open(dir);
+        assertEquals(6, journal.size());
+        assertNotNull(journal.findByTransactionRef("ORD5"));
+    }
+
+    @Test
+    public void dropsATailRecordWithABadChecksum() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir);
+        journal.recordLaunch(request("ORD1"), null);
+        journal.flush();
+        File segment = onlySegment(dir);
+        long firstRecordEnd = segment.length();
+        journal.recordLaunch(request("ORD2"), null);
+        journal.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        journal = TransactionJournal.open(dir);
+        assertEquals(1, journal.size());
+        assertNotNull(journal.findByTransactionRef("ORD1"));
+        assertNull(journal.findByTransactionRef("ORD2"));
+        assertEquals(firstRecordEnd, segment.length());
+    }
+
+    @Test
+    public void rejectsUnknownEntryTypes() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir);
+        journal.recordLaunch(request("ORD1"), null);
+        journal.close();
+
+        // Rewrite the type byte, which follows the version byte, and fix up the checksum
+        File segment = onlySegment(dir);
+        byte[] record = Files.readAllBytes(segment.toPath());
+        record[9] = 9;
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, record.length - 8);
+        int value = (int) crc.getValue();
+        for (int i = 0; i < 4; i++) {
+            record[4 + i] = (byte) (value >>> (24 - 8 * i));
+        }
+        Files.write(segment.toPath(), record);
+
+        journal = TransactionJournal.open(dir);
+        assertEquals(0, journal.size());
+        journal.recordLaunch(request("ORD2"), null);
+        try {
+            journal.flush();
+            fail("Expected the load error");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("type 9"));
+        }
+    }
+
+    @Test
+    public void rollsOverToNewSegments() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir, 256);
+        for (int i = 0; i < 50; i++) {
+            journal.recordLaunch(request("ORD" + i), null);
+        }
+        journal.flush();
+
+        File[] segments = segments(dir);
+        assertTrue(String.valueOf(segments.length), segments.length > 5);
+        for (File segment : Arrays.copyOf(segments, segments.length - 1)) {
+            assertTrue(segment.getName() + " " + segment.length(), segment.length() >= 256);
+            assertTrue(segment.getName() + " " + segment.length(), segment.length() < 512);
+        }
+        journal.close();
+
+        journal = TransactionJournal.open(dir, 256);
+        assertEquals(50, journal.size());
+        List<JournalEntry> entries = journal.latestEntries();
+        for (int i = 0; i < 50; i++) {
+            assertEquals("ORD" + i, entries.get(i).getTransactionRef());
+        }
+    }
+
+    @Test
+    public void compactionKeepsTheLatestEntryAndResultPerTransaction() throws Exception {
+        File dir = folder.getRoot();
+        journal = TransactionJournal.open(dir, 512);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10; i++) {
+                journal.recordLaunch(request("ORD" + i), null);
+                journal.recordResult(null, null,
+                        response("ORD" + i, TransactionResponse.STATUS_FAILURE, "TXN" + round + "-" + i));
+            }
+        }
+        // Retries of the even refs are launched but have no result yet
+        for (int i = 0; i < 10; i += 2) {
+            journal.recordLaunch(request("ORD" + i), null);
+        }
+        journal.flush();
+        assertTrue(segments(dir).length > 1);
+
+        List<JournalEntry> before = journal.latestEntries();
+        List<JournalEntry> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(journal.findResultByTransactionRef("ORD" + i));
+        }
+        journal.compact().get();
+        assertEquals(1, segments(dir).length);
+        journal.close();
+
+        journal = TransactionJournal.open(dir, 512);
+        assertEquals(sequences(before), sequences(journal.latestEntries()));
+        for (int i = 0; i < 10; i++) {
+            JournalEntry result = journal.findResultByTransactionRef("ORD" + i);
+            assertEquals(results.get(i).getSequence(), result.getSequence());
+            assertEquals("TXN2-" + i, result.getTransactionId());
+            assertEquals(result.getSequence(), journal.findByTransactionId("TXN2-" + i).getSequence());
+            assertEquals(i % 2 == 0 ? JournalEntry.Type.LAUNCH : JournalEntry.Type.RESULT,
+                    journal.findByTransactionRef("ORD" + i).getType());
+        }
+        // Superseded results are gone from disk
+        assertNull(journal.findByTransactionId("TXN0-0"));
+
+        journal.recordLaunch(request("ORD10"), null);
+        journal.close();
+        journal = TransactionJournal.open(dir, 512);
+        assertEquals(11, journal.size());
+    }
+
+    private static File onlySegment(File dir) {
+        File[] segments = segments(dir);
+        assertEquals(1, segments.length);
+        return segments[0];
+    }
+
+    private static File[] segments(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith("segment-") && name.endsWith(".log"));
+        Arrays.sort(files, Comparator.comparingInt(file -> Integer.parseInt(file.getName().replaceAll("\\D", ""))));
+        return files;
+    }
+
+    private static List<Long> sequences(List<JournalEntry> entries) {
+        List<Long> sequences = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            sequences.add(entry.getSequence());
+        }
+        return sequences;
+    }
+
+    private static PaymentRequest request(String ref) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis")
+                .setPayeeName("Shop")
+                .setAmount("149.00")
+                .setTransactionRef(ref)
+                .build();
+    }
+
+    private static TransactionResponse response(String ref, String status, String transactionId) {
+        TransactionResponse response = new TransactionResponse();
+        response.setTransactionRef(ref);
+        response.setStatus(status);
+        response.setResponseCode("00");
+        response.setTransactionId(transactionId);
+        response.setRawResponse("txnId=" + transactionId + "&Status=" + status + "&txnRef=" + ref);
+        return response;
+    }
+}
@@ -0,0 +1,237 @@
+package com.adamsnub.upilib.launcher;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PendingStatusPollerTest {
+
+    private final List<String> completed = new CopyOnWriteArrayList<>();
+    private final List<String> registered = new ArrayList<>();
+    private PendingStatusPoller poller;
+
+    @After
+    public void tearDown() {
+        if (poller != null) poller.shutdown();
+        for (String ref : registered) {
+            PaymentListenerRegistry.remove(ref);
+        }
+    }
+
+    @Test
+    public void checksRefsInDueTimeOrder() throws Exception {
+        final StubStatusChecker stub = new StubStatusChecker();
+        stub.setStatus("A", TransactionResponse.STATUS_SUBMITTED);
+        stub.setStatus("B", TransactionResponse.STATUS_SUCCESS);
+        final List<String> order = new CopyOnWriteArrayList<>();
+        poller = builder(refs -> {
+            order.addAll(refs);
+            // A backs off to [80, 160] ms after its third check; B, enqueued later, is due in [10, 20] ms
+            if (order.size() == 3) poller.enqueue("B");
+            if (order.size() == 4) stub.setStatus("A", TransactionResponse.STATUS_SUCCESS);
+            return stub.checkStatus(refs);
+        }).setBatchSize(1).setMaxConcurrentBatches(1).setBackoff(20, 1000).build();
+
+        listen("A", "B");
+        poller.enqueue("A");
+        awaitCompleted(2);
+        assertEquals(Arrays.asList("A", "A", "A", "B", "A"), order);
+        assertEquals(Arrays.asList("B", "A"), completed);
+    }
+
+    @Test
+    public void groupsDueRefsIntoBatches() throws Exception {
+        StubStatusChecker stub = new StubStatusChecker();
+        for (int i = 0; i < 25; i++) {
+            stub.setStatus("ORD" + i, TransactionResponse.STATUS_SUCCESS);
+        }
+        poller = builder(stub).setBatchSize(10).setMaxConcurrentBatches(1).setBackoff(50, 1000).build();
+
+        for (int i = 0; i < 25; i++) {
+            listen("ORD" + i);
+            poller.enqueue("ORD" + i);
+        }
+        // Already pending
+        poller.enqueue("ORD0");
+        awaitCompleted(25);
+
+        assertEquals(25, stub.getCheckedRefCount());
+        assertTrue(String.valueOf(stub.getBatches()), stub.getBatchCount() >= 3);
+        assertTrue(String.valueOf(stub.getBatches()), stub.getBatchCount() < 25);
+        int largest = 0;
+        for (List<String> batch : stub.getBatches()) {
+            assertTrue(String.valueOf(batch), batch.size() <= 10);
+            largest = Math.max(largest, batch.size());
+        }
+        assertEquals(10, largest);
+        assertEquals(0, poller.getPendingCount());
+    }
+
+    @Test
+    public void capsBatchesInFlight() throws Exception {
+        final StubStatusChecker stub = new StubStatusChecker();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        poller = builder(refs -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(20);
+                return stub.checkStatus(refs);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }).setBatchSize(1).setMaxConcurrentBatches(2).setBackoff(10, 1000).build();
+
+        for (int i = 0; i < 12; i++) {
+            stub.setStatus("ORD" + i, TransactionResponse.STATUS_FAILURE);
+            listen("ORD" + i);
+            poller.enqueue("ORD" + i);
+        }
+        awaitCompleted(12);
+        assertEquals(2, maxInFlight.get());
+        assertEquals(12, stub.getBatchCount());
+    }
+
+    @Test
+    public void backsOffExponentiallyWithinJitterBounds() throws Exception {
+        final List<Long> checkedAt = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(6);
+        final long start = System.nanoTime();
+        poller = builder(refs -> {
+            checkedAt.add(System.nanoTime());
+            done.countDown();
+            return Collections.emptyMap();
+        }).setBackoff(20, 80).setMaxAttempts(6).build();
+
+        poller.enqueue("A");
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // initialDelay * 2^attempt capped at 80 ms, jittered into [d/2, d]; the upper bound allows for scheduling
+        long[] delays = {20, 40, 80, 80, 80, 80};
+        long previous = start;
+        for (int i = 0; i < delays.length; i++) {
+            long waited = TimeUnit.NANOSECONDS.toMillis(checkedAt.get(i) - previous);
+            assertTrue("check " + i + " after " + waited + " ms", waited >= delays[i] / 2);
+            assertTrue("check " + i + " after " + waited + " ms", waited <= delays[i] + 100);
+            previous = checkedAt.get(i);
+        }
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        StubStatusChecker stub = new StubStatusChecker();
+        stub.setStatus("A", TransactionResponse.STATUS_SUBMITTED);
+        poller = builder(stub).setBackoff(5, 10).setMaxAttempts(3).build();
+
+        listen("A");
+        poller.enqueue("A");
+        awaitPending(0);
+        Thread.sleep(50);
+        assertEquals(3, stub.getBatchCount());
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    public void cancelStopsPolling() throws Exception {
+        StubStatusChecker stub = new StubStatusChecker();
+        stub.setStatus("A", TransactionResponse.STATUS_SUCCESS);
+        poller = builder(stub).setBackoff(50, 100).build();
+
+        listen("A");
+        poller.enqueue("A");
+        assertTrue(poller.cancel("A"));
+        assertFalse(poller.cancel("A"));
+        assertEquals(0, poller.getPendingCount());
+        Thread.sleep(150);
+        assertEquals(0, stub.getBatchCount());
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    public void cancelDuringACheckDropsItsResult() throws Exception {
+        final StubStatusChecker stub = new StubStatusChecker();
+        stub.setStatus("A", TransactionResponse.STATUS_SUCCESS);
+        final CountDownLatch checking = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch returned = new CountDownLatch(1);
+        poller = builder(refs -> {
+            checking.countDown();
+            release.await();
+            try {
+                return stub.checkStatus(refs);
+            } finally {
+                returned.countDown();
+            }
+        }).setBackoff(5, 10).build();
+
+        listen("A");
+        poller.enqueue("A");
+        assertTrue(checking.await(5, TimeUnit.SECONDS));
+        assertTrue(poller.cancel("A"));
+        release.countDown();
+        assertTrue(returned.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, stub.getBatchCount());
+        assertEquals(0, poller.getPendingCount());
+        assertTrue(completed.isEmpty());
+    }
+
+    private PendingStatusPoller.Builder builder(StatusChecker checker) {
+        return new PendingStatusPoller.Builder(checker).setDeliveryExecutor(Runnable::run);
+    }
+
+    /**
+     * Register a listener that records each ref in {@link #completed} when its final result arrives
+     */
+    private void listen(String... refs) {
+        for (final String ref : refs) {
+            PaymentListenerRegistry.register(ref, new PaymentStatusListener() {
+                @Override
+                public void onTransactionCompleted(TransactionResponse transactionResponse) {
+                    completed.add(ref);
+                }
+
+                @Override
+                public void onTransactionCancelled() {
+                    completed.add(ref);
+                }
+
+                @Override
+                public void onAppNotFound() {
+                }
+            });
+            registered.add(ref);
+        }
+    }
+
+    private void awaitCompleted(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (completed.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, completed.size());
+    }
+
+    private void awaitPending(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (poller.getPendingCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, poller.getPendingCount());
+    }
+}
@@ -0,0 +1,69 @@
+package com.adamsnub.upilib.launcher;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link StatusChecker}: answers from statuses set with {@link #setStatus}
+ * and records every batch it was asked about.
+ */
+public class StubStatusChecker implements StatusChecker {
+    private final Map<String, TransactionResponse> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger batchCount = new AtomicInteger();
+    private final AtomicInteger refCount = new AtomicInteger();
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    public void setStatus(String transactionRef, String status) {
+        TransactionResponse response = new TransactionResponse();
+        response.setTransactionRef(transactionRef);
+        response.setStatus(status);
+        statuses.put(transactionRef, response);
+    }
+
+    public void setResponse(String transactionRef, TransactionResponse response) {
+        statuses.put(transactionRef, response);
+    }
+
+    @Override
+    public Map<String, TransactionResponse> checkStatus(List<String> transactionRefs) {
+        batchCount.incrementAndGet();
+        refCount.addAndGet(transactionRefs.size());
+        batches.add(new ArrayList<>(transactionRefs));
+        Map<String, TransactionResponse> result = new HashMap<>();
+        for (String ref : transactionRefs) {
+            TransactionResponse response = statuses.get(ref);
+            if (response != null) {
+                result.put(ref, response);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of checkStatus calls so far
+     */
+    public int getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Total transactionRefs checked so far, across all batches
+     */
+    public int getCheckedRefCount() {
+        return refCount.get();
+    }
+
+    /**
+     * The refs of every checkStatus call so far, in call order
+     */
+    public List<List<String>> getBatches() {
+        return batches;
+    }
+}
@@ -0,0 +1,67 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parse time per raw response, cycling through the captured corpus of one PSP app
+ * ("all" interleaves every corpus).
+ */
+@State(Scope.Thread)
+public class UpiResponseParserBenchmark {
+    private static final String[] CORPORA = {"gpay", "phonepe", "paytm", "bhim", "amazonpay"};
+
+    @Param({"gpay", "phonepe", "paytm", "bhim", "amazonpay", "all"})
+    public String corpus;
+
+    private String[] responses;
+    private int index;
+
+    @Setup
+    public void load() throws IOException {
+        List<String> lines = new ArrayList<>();
+        if ("all".equals(corpus)) {
+            List<List<String>> all = new ArrayList<>();
+            for (String name : CORPORA) all.add(read(name));
+            for (int i = 0; i < all.get(0).size(); i++) {
+                for (List<String> one : all) lines.add(one.get(i % one.size()));
+            }
+        } else {
+            lines = read(corpus);
+        }
+        responses = lines.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public TransactionResponse parse() {
+        String response = responses[index];
+        index = index + 1 == responses.length ? 0 : index + 1;
+        return UpiResponseParser.parse(response);
+    }
+
+    static List<String> read(String name) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = UpiResponseParserBenchmark.class.getResourceAsStream("/responses/" + name + ".txt")) {
+            if (in == null) throw new IOException("Missing corpus " + name);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
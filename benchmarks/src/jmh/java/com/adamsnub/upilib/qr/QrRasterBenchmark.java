@@ -0,0 +1,98 @@
+package com.adamsnub.upilib.qr;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The QR steps after encoding: filling pixel rows from the BitMatrix exactly as
+ * ModuleQrRasterizer does (minus Bitmap.setPixels), packing the module matrix,
+ * and writing the PNG. The encode itself is measured separately for reference.
+ */
+@State(Scope.Thread)
+public class QrRasterBenchmark {
+    private static final int DARK = 0xFF000000;
+    private static final int LIGHT = 0xFFFFFFFF;
+
+    @Param({"short", "long"})
+    public String payload;
+
+    @Param({"512"})
+    public int sizePx;
+
+    private String content;
+    private BitMatrix bitMatrix;
+    private QrModuleMatrix moduleMatrix;
+    private int[] band;
+    private int scale;
+    private int offset;
+    private int size;
+    private final QrPngWriter pngWriter = new QrPngWriter();
+    private final ByteArrayOutputStream png = new ByteArrayOutputStream(4096);
+
+    @Setup
+    public void setUp() throws WriterException {
+        content = "short".equals(payload)
+                ? "upi://pay?pa=shop@okaxis&pn=Shop&am=149.00&tr=ORD1&cu=INR"
+                : "upi://pay?pa=merchant.store@okaxis&pn=Corner%20Store%20%26%20Cafe&am=1249.50"
+                + "&tr=ORD5962626691&cu=INR&mode=05&mc=5411&tn=Table%20%234%20-%202x%20coffee%2C%201x%20sandwich";
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, QrModuleMatrix.DEFAULT_QUIET_ZONE);
+        bitMatrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+        moduleMatrix = QrModuleMatrix.fromBitMatrix(bitMatrix);
+
+        int modules = bitMatrix.getWidth();
+        size = Math.max(sizePx, modules);
+        scale = size / modules;
+        offset = (size - modules * scale) / 2;
+        band = new int[size * scale];
+    }
+
+    @TearDown
+    public void tearDown() {
+        pngWriter.close();
+    }
+
+    /**
+     * Every pixel row of the image; the rasterizer hands each band to Bitmap.setPixels
+     */
+    @Benchmark
+    public int fillPixels() {
+        int modules = bitMatrix.getWidth();
+        for (int y = 0; y < modules; y++) {
+            QrPixels.fillBand(bitMatrix, y, scale, offset, size, band, DARK, LIGHT);
+        }
+        return band[size / 2];
+    }
+
+    @Benchmark
+    public QrModuleMatrix packModules() {
+        return QrModuleMatrix.fromBitMatrix(bitMatrix);
+    }
+
+    @Benchmark
+    public int writePng() throws IOException {
+        png.reset();
+        pngWriter.write(moduleMatrix, 8, png);
+        return png.size();
+    }
+
+    @Benchmark
+    public QrModuleMatrix encode() throws WriterException {
+        return QrModuleMatrix.encode(content);
+    }
+}
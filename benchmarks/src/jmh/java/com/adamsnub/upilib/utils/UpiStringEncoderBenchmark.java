@@ -0,0 +1,61 @@
+package com.adamsnub.upilib.utils;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building the upi://pay string for typical requests: plain ASCII, a note that
+ * needs percent-encoding, and a merchant request with a multi-byte payee name.
+ */
+@State(Scope.Thread)
+public class UpiStringEncoderBenchmark {
+
+    @Param({"ascii", "encoded", "merchant"})
+    public String shape;
+
+    private final UpiStringEncoder encoder = new UpiStringEncoder();
+    private final StringBuilder buffer = new StringBuilder(256);
+    private PaymentRequest request;
+    private String merchantCode;
+
+    @Setup
+    public void setUp() {
+        PaymentRequest.Builder builder = new PaymentRequest.Builder()
+                .setPayeeVpa("merchant.store@okaxis")
+                .setTransactionRef("ORD5962626691")
+                .setCurrency("INR");
+        switch (shape) {
+            case "ascii":
+                builder.setPayeeName("Corner Store").setAmount("149.00").setTransactionNote("Order 5962626691");
+                break;
+            case "encoded":
+                builder.setPayeeName("Corner Store & Cafe").setAmount("1249.5")
+                        .setTransactionNote("Table #4 - 2x coffee, 1x sandwich (50% off)");
+                break;
+            default:
+                builder.setPayeeName("श्री गणेश स्टोर्स").setAmount("99999.99").setTransactionNote("Invoice/2024/00042");
+                merchantCode = "5411";
+                break;
+        }
+        request = builder.build();
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(request, merchantCode);
+    }
+
+    /**
+     * Appending into a reused builder, as the QR and intent paths do
+     */
+    @Benchmark
+    public int encodeTo() {
+        buffer.setLength(0);
+        return UpiStringEncoder.encodeTo(buffer, request, merchantCode).length();
+    }
+}
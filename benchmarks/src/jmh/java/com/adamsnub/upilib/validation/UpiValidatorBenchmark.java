@@ -0,0 +1,61 @@
+package com.adamsnub.upilib.validation;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * VPA and amount checks over a mix of valid and invalid inputs, as typed into a checkout form.
+ */
+@State(Scope.Thread)
+public class UpiValidatorBenchmark {
+    private static final String[] VPAS = {
+            "merchant.store@okaxis", "9876543210@ybl", "john.doe-1@oksbi", "shop_42@paytm",
+            "no-at-sign", "@okaxis", "name@", "a@b", "spaces in@upi", "UPPER.CASE@ICICI"
+    };
+    private static final String[] AMOUNTS = {
+            "149.00", "1", "99.5", "100000.00", "0.01", "", "12.345", "-5", "1,000", "abc"
+    };
+
+    private PaymentRequest.Builder[] builders;
+    private ValidationResult[] results;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        builders = new PaymentRequest.Builder[64];
+        for (int i = 0; i < builders.length; i++) {
+            builders[i] = new PaymentRequest.Builder()
+                    .setPayeeVpa(VPAS[i % VPAS.length])
+                    .setPayeeName("Store " + i)
+                    .setAmount(AMOUNTS[i * 3 % AMOUNTS.length])
+                    .setTransactionRef("ORD" + (1000000 + i));
+        }
+        results = new ValidationResult[builders.length];
+    }
+
+    @Benchmark
+    public boolean isValidVpa() {
+        String vpa = VPAS[index];
+        index = index + 1 == VPAS.length ? 0 : index + 1;
+        return UpiValidator.isValidVpa(vpa);
+    }
+
+    @Benchmark
+    public boolean isValidAmount() {
+        String amount = AMOUNTS[index];
+        index = index + 1 == AMOUNTS.length ? 0 : index + 1;
+        return UpiValidator.isValidAmount(amount);
+    }
+
+    /**
+     * Whole-request validation over a batch of 64 unbuilt requests; divide by 64 for the per-request cost
+     */
+    @Benchmark
+    public int validateAll() {
+        return UpiValidator.validateAll(builders, results);
+    }
+}
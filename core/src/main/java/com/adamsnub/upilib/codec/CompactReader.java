@@ -0,0 +1,69 @@
+package com.adamsnub.upilib.codec;
+
+import java.nio.charset.Charset;
+
+/**
+ * Reads values written by {@link CompactWriter} from a byte range.
+ *
+ * @throws IllegalArgumentException from every read if the data is truncated or malformed
+ */
+public final class CompactReader {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    public CompactReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public CompactReader(byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Invalid range");
+        }
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    public int readByte() {
+        if (position >= end) throw truncated();
+        return data[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (result < 0) throw new IllegalArgumentException("Varint out of range");
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("Varint out of int range");
+        return (int) value;
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length > end - position) throw truncated();
+        String value = new String(data, position, length, UTF_8);
+        position += length;
+        return value;
+    }
+
+    public boolean hasRemaining() {
+        return position < end;
+    }
+
+    private static IllegalArgumentException truncated() {
+        return new IllegalArgumentException("Truncated record");
+    }
+}
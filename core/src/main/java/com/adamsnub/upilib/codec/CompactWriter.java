@@ -0,0 +1,128 @@
+package com.adamsnub.upilib.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Growable byte buffer for the compact codec: unsigned LEB128 varints and
+ * length-prefixed UTF-8 strings, encoded by hand without intermediate arrays.
+ * Reusable after {@link #reset()}; not thread-safe.
+ */
+public final class CompactWriter {
+    private byte[] buffer;
+    private int position;
+
+    public CompactWriter() {
+        this(128);
+    }
+
+    public CompactWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public CompactWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write a non-negative value as an unsigned varint (1 byte below 128)
+     */
+    public CompactWriter writeVarLong(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint must not be negative: " + value);
+        }
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write a non-null string as varint byte length + UTF-8. Unpaired surrogates become '?'.
+     */
+    public CompactWriter writeString(String value) {
+        int length = value.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length++;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                utf8Length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                utf8Length++;
+            } else {
+                utf8Length += 3;
+            }
+        }
+        writeVarLong(utf8Length);
+        ensureCapacity(utf8Length);
+
+        byte[] out = buffer;
+        int p = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out[p++] = (byte) c;
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xC0 | (c >> 6));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[p++] = (byte) (0xF0 | (codePoint >> 18));
+                out[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out[p++] = (byte) '?';
+            } else {
+                out[p++] = (byte) (0xE0 | (c >> 12));
+                out[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        position = p;
+        return this;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * Feed the written bytes to a checksum without copying them
+     */
+    public void updateChecksum(Checksum checksum) {
+        checksum.update(buffer, 0, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
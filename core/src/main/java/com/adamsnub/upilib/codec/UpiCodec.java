@@ -0,0 +1,181 @@
+package com.adamsnub.upilib.codec;
+
+import com.adamsnub.upilib.models.Money;
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.TransactionResponse;
+import com.adamsnub.upilib.models.TransactionStatus;
+
+/**
+ * Compact binary form of {@link PaymentRequest} and {@link TransactionResponse},
+ * used for intent extras and safe to store.
+ *
+ * Each record starts with a version byte followed by a varint bitmask of the
+ * fields present; absent fields cost nothing. Strings are varint length +
+ * UTF-8, the amount is varint paise, INR is a single bit and the status is a
+ * fixed code that does not depend on enum order. A typical request is well
+ * under 100 bytes, against several hundred for Java serialization.
+ */
+public final class UpiCodec {
+    public static final int VERSION = 1;
+
+    // PaymentRequest fields
+    private static final int PAYEE_VPA = 1;
+    private static final int PAYEE_NAME = 1 << 1;
+    // 1 << 2 is unused
+    private static final int AMOUNT_PAISE = 1 << 3;
+    private static final int TRANSACTION_REF = 1 << 4;
+    private static final int TRANSACTION_NOTE = 1 << 5;
+    private static final int CURRENCY_TEXT = 1 << 6;
+    private static final int CURRENCY_INR = 1 << 7;
+    private static final int MERCHANT_CODE = 1 << 8;
+
+    // TransactionResponse fields
+    private static final int TRANSACTION_ID = 1;
+    private static final int RESPONSE_CODE = 1 << 1;
+    private static final int APPROVAL_REF_NO = 1 << 2;
+    private static final int RESPONSE_REF = 1 << 3;
+    private static final int RAW_RESPONSE = 1 << 4;
+
+    // Stored status codes; never renumber, only add
+    private static final int STATUS_NONE = 0;
+    private static final int STATUS_SUCCESS = 1;
+    private static final int STATUS_FAILURE = 2;
+    private static final int STATUS_SUBMITTED = 3;
+    private static final int STATUS_CANCELLED = 4;
+    private static final int STATUS_UNKNOWN = 5;
+
+    private static final String INR = "INR";
+
+    private UpiCodec() {}
+
+    public static byte[] encode(PaymentRequest request) {
+        CompactWriter writer = new CompactWriter(96);
+        encodeTo(writer, request);
+        return writer.toByteArray();
+    }
+
+    public static void encodeTo(CompactWriter writer, PaymentRequest request) {
+        String currency = request.getCurrency();
+
+        int mask = AMOUNT_PAISE;
+        if (request.getPayeeVpa() != null) mask |= PAYEE_VPA;
+        if (request.getPayeeName() != null) mask |= PAYEE_NAME;
+        if (request.getTransactionRef() != null) mask |= TRANSACTION_REF;
+        if (request.getTransactionNote() != null) mask |= TRANSACTION_NOTE;
+        if (INR.equals(currency)) mask |= CURRENCY_INR;
+        else if (currency != null) mask |= CURRENCY_TEXT;
+        if (request.getMerchantCode() != null) mask |= MERCHANT_CODE;
+
+        writer.writeByte(VERSION).writeVarLong(mask);
+        if ((mask & PAYEE_VPA) != 0) writer.writeString(request.getPayeeVpa());
+        if ((mask & PAYEE_NAME) != 0) writer.writeString(request.getPayeeName());
+        writer.writeVarLong(request.getAmountPaise());
+        if ((mask & TRANSACTION_REF) != 0) writer.writeString(request.getTransactionRef());
+        if ((mask & TRANSACTION_NOTE) != 0) writer.writeString(request.getTransactionNote());
+        if ((mask & CURRENCY_TEXT) != 0) writer.writeString(currency);
+        if ((mask & MERCHANT_CODE) != 0) writer.writeString(request.getMerchantCode());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is malformed or from a newer version
+     * @throws IllegalStateException if the decoded request fails the builder's checks
+     */
+    public static PaymentRequest decodePaymentRequest(byte[] data) {
+        return decodePaymentRequest(new CompactReader(data));
+    }
+
+    public static PaymentRequest decodePaymentRequest(CompactReader reader) {
+        readVersion(reader);
+        int mask = reader.readVarInt();
+        PaymentRequest.Builder builder = new PaymentRequest.Builder()
+                .setTransactionNote(null)
+                .setCurrency(null);
+        if ((mask & PAYEE_VPA) != 0) builder.setPayeeVpa(reader.readString());
+        if ((mask & PAYEE_NAME) != 0) builder.setPayeeName(reader.readString());
+        if ((mask & AMOUNT_PAISE) != 0) builder.setAmount(Money.ofPaise(reader.readVarLong()));
+        if ((mask & TRANSACTION_REF) != 0) builder.setTransactionRef(reader.readString());
+        if ((mask & TRANSACTION_NOTE) != 0) builder.setTransactionNote(reader.readString());
+        if ((mask & CURRENCY_INR) != 0) builder.setCurrency(INR);
+        if ((mask & CURRENCY_TEXT) != 0) builder.setCurrency(reader.readString());
+        if ((mask & MERCHANT_CODE) != 0) builder.setMerchantCode(reader.readString());
+        return builder.build();
+    }
+
+    public static byte[] encode(TransactionResponse response) {
+        CompactWriter writer = new CompactWriter(64);
+        encodeTo(writer, response);
+        return writer.toByteArray();
+    }
+
+    public static void encodeTo(CompactWriter writer, TransactionResponse response) {
+        int mask = 0;
+        if (response.getTransactionId() != null) mask |= TRANSACTION_ID;
+        if (response.getResponseCode() != null) mask |= RESPONSE_CODE;
+        if (response.getApprovalRefNo() != null) mask |= APPROVAL_REF_NO;
+        if (response.getTransactionRef() != null) mask |= RESPONSE_REF;
+        if (response.getRawResponse() != null) mask |= RAW_RESPONSE;
+
+        writer.writeByte(VERSION)
+                .writeVarLong(statusCode(response.getTransactionStatus()))
+                .writeVarLong(mask);
+        if ((mask & TRANSACTION_ID) != 0) writer.writeString(response.getTransactionId());
+        if ((mask & RESPONSE_CODE) != 0) writer.writeString(response.getResponseCode());
+        if ((mask & APPROVAL_REF_NO) != 0) writer.writeString(response.getApprovalRefNo());
+        if ((mask & RESPONSE_REF) != 0) writer.writeString(response.getTransactionRef());
+        if ((mask & RAW_RESPONSE) != 0) writer.writeString(response.getRawResponse());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is malformed or from a newer version
+     */
+    public static TransactionResponse decodeTransactionResponse(byte[] data) {
+        return decodeTransactionResponse(new CompactReader(data));
+    }
+
+    public static TransactionResponse decodeTransactionResponse(CompactReader reader) {
+        readVersion(reader);
+        TransactionStatus status = statusFromCode(reader.readVarInt());
+        int mask = reader.readVarInt();
+
+        TransactionResponse response = new TransactionResponse();
+        response.setTransactionStatus(status);
+        if ((mask & TRANSACTION_ID) != 0) response.setTransactionId(reader.readString());
+        if ((mask & RESPONSE_CODE) != 0) response.setResponseCode(reader.readString());
+        if ((mask & APPROVAL_REF_NO) != 0) response.setApprovalRefNo(reader.readString());
+        if ((mask & RESPONSE_REF) != 0) response.setTransactionRef(reader.readString());
+        if ((mask & RAW_RESPONSE) != 0) response.setRawResponse(reader.readString());
+        return response;
+    }
+
+    private static void readVersion(CompactReader reader) {
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version " + version);
+        }
+    }
+
+    private static int statusCode(TransactionStatus status) {
+        if (status == null) return STATUS_NONE;
+        switch (status) {
+            case SUCCESS: return STATUS_SUCCESS;
+            case FAILURE: return STATUS_FAILURE;
+            case SUBMITTED: return STATUS_SUBMITTED;
+            case CANCELLED: return STATUS_CANCELLED;
+            default: return STATUS_UNKNOWN;
+        }
+    }
+
+    /**
+     * Codes added by a later release read as UNKNOWN
+     */
+    private static TransactionStatus statusFromCode(int code) {
+        switch (code) {
+            case STATUS_NONE: return null;
+            case STATUS_SUCCESS: return TransactionStatus.SUCCESS;
+            case STATUS_FAILURE: return TransactionStatus.FAILURE;
+            case STATUS_SUBMITTED: return TransactionStatus.SUBMITTED;
+            case STATUS_CANCELLED: return TransactionStatus.CANCELLED;
+            default: return TransactionStatus.UNKNOWN;
+        }
+    }
+}
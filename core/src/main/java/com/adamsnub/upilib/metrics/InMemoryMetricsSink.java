@@ -0,0 +1,101 @@
+package com.adamsnub.upilib.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates timings into per-(name, tag) histograms and counters in memory.
+ * Read them back with {@link #getTimers} and {@link #getCounters}, e.g. to
+ * upload p50/p99 per UPI app along with the app's own device-tier dimensions.
+ */
+public class InMemoryMetricsSink implements MetricsSink {
+    /** Tag under which untagged metrics are stored */
+    public static final String NO_TAG = "";
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordTiming(String name, String tag, long nanos) {
+        ConcurrentMap<String, Histogram> byTag = timers.get(name);
+        if (byTag == null) {
+            byTag = putIfAbsent(timers, name, new ConcurrentHashMap<String, Histogram>());
+        }
+        String key = tag != null ? tag : NO_TAG;
+        Histogram histogram = byTag.get(key);
+        if (histogram == null) {
+            histogram = putIfAbsent(byTag, key, new Histogram());
+        }
+        histogram.record(nanos);
+    }
+
+    @Override
+    public void increment(String name, String tag, long delta) {
+        ConcurrentMap<String, AtomicLong> byTag = counters.get(name);
+        if (byTag == null) {
+            byTag = putIfAbsent(counters, name, new ConcurrentHashMap<String, AtomicLong>());
+        }
+        String key = tag != null ? tag : NO_TAG;
+        AtomicLong counter = byTag.get(key);
+        if (counter == null) {
+            counter = putIfAbsent(byTag, key, new AtomicLong());
+        }
+        counter.addAndGet(delta);
+    }
+
+    /**
+     * Snapshot of one timer, or null if nothing was recorded
+     */
+    public TimerStats getTimer(String name, String tag) {
+        ConcurrentMap<String, Histogram> byTag = timers.get(name);
+        Histogram histogram = byTag != null ? byTag.get(tag != null ? tag : NO_TAG) : null;
+        return histogram != null ? histogram.snapshot() : null;
+    }
+
+    /**
+     * Snapshots of a timer for every tag it was recorded with
+     */
+    public Map<String, TimerStats> getTimers(String name) {
+        Map<String, TimerStats> result = new HashMap<>();
+        ConcurrentMap<String, Histogram> byTag = timers.get(name);
+        if (byTag != null) {
+            for (Map.Entry<String, Histogram> entry : byTag.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().snapshot());
+            }
+        }
+        return result;
+    }
+
+    public long getCounter(String name, String tag) {
+        ConcurrentMap<String, AtomicLong> byTag = counters.get(name);
+        AtomicLong counter = byTag != null ? byTag.get(tag != null ? tag : NO_TAG) : null;
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Values of a counter for every tag it was incremented with
+     */
+    public Map<String, Long> getCounters(String name) {
+        Map<String, Long> result = new HashMap<>();
+        ConcurrentMap<String, AtomicLong> byTag = counters.get(name);
+        if (byTag != null) {
+            for (Map.Entry<String, AtomicLong> entry : byTag.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return result;
+    }
+
+    public void reset() {
+        timers.clear();
+        counters.clear();
+    }
+
+    private static <V> V putIfAbsent(ConcurrentMap<String, V> map, String key, V value) {
+        V existing = map.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+}
@@ -0,0 +1,15 @@
+package com.adamsnub.upilib.metrics;
+
+/**
+ * Receives the library's timings and counters. Implementations are called on
+ * hot paths from any thread, so they must be thread-safe and cheap.
+ *
+ * The tag qualifies a metric, e.g. the target UPI app package or a response
+ * code; it is null when the metric has no qualifier.
+ */
+public interface MetricsSink {
+
+    void recordTiming(String name, String tag, long nanos);
+
+    void increment(String name, String tag, long delta);
+}
@@ -0,0 +1,16 @@
+package com.adamsnub.upilib.metrics;
+
+/**
+ * Default sink; discards everything
+ */
+public final class NoOpMetricsSink implements MetricsSink {
+    public static final NoOpMetricsSink INSTANCE = new NoOpMetricsSink();
+
+    private NoOpMetricsSink() {}
+
+    @Override
+    public void recordTiming(String name, String tag, long nanos) {}
+
+    @Override
+    public void increment(String name, String tag, long delta) {}
+}
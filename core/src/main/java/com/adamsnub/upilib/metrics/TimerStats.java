@@ -0,0 +1,81 @@
+package com.adamsnub.upilib.metrics;
+
+/**
+ * Snapshot of one timer's histogram. Percentiles are accurate to within the
+ * histogram's bucket width, 12.5% of the value.
+ */
+public class TimerStats {
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    TimerStats(long count, long totalNanos, long maxNanos, long[] buckets) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getP50Nanos() {
+        return getPercentileNanos(0.50);
+    }
+
+    public long getP90Nanos() {
+        return getPercentileNanos(0.90);
+    }
+
+    public long getP99Nanos() {
+        return getPercentileNanos(0.99);
+    }
+
+    /**
+     * Value below which the given fraction (0..1] of samples fall
+     */
+    public long getPercentileNanos(double fraction) {
+        long total = 0;
+        for (long bucket : buckets) total += bucket;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(fraction * total);
+        if (rank < 1) rank = 1;
+        // The top sample is known exactly
+        if (rank >= total) return maxNanos;
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(Histogram.bucketMidpoint(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + " mean=" + micros(getMeanNanos())
+                + " p50=" + micros(getP50Nanos())
+                + " p99=" + micros(getP99Nanos())
+                + " max=" + micros(maxNanos);
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000) + "us";
+    }
+}
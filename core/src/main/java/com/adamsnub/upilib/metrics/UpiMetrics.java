@@ -0,0 +1,102 @@
+package com.adamsnub.upilib.metrics;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+/**
+ * Instrumentation entry point used throughout the library.
+ *
+ * With the default {@link NoOpMetricsSink} every call is a volatile read and
+ * a branch; timers are only started once a real sink is installed.
+ *
+ * <pre>
+ * long start = UpiMetrics.start();
+ * ...
+ * UpiMetrics.stop(UpiMetrics.BUILD_URI, null, start);
+ * </pre>
+ */
+public final class UpiMetrics {
+    /** Timer: querying the package manager for UPI apps */
+    public static final String DETECT_APPS = "upi.detect_apps";
+    /** Timer: building the upi://pay URI */
+    public static final String BUILD_URI = "upi.build_uri";
+    /** Timer, tagged by target package: handing the intent to the system */
+    public static final String LAUNCH_INTENT = "upi.launch_intent";
+    /** Timer, tagged by target package: from launch until the UPI app returns */
+    public static final String LAUNCH_TO_RESULT = "upi.launch_to_result";
+    /** Timer: encoding a payment string into QR modules */
+    public static final String QR_ENCODE = "upi.qr_encode";
+    /** Timer: rasterizing QR modules into a bitmap */
+    public static final String QR_RASTER = "upi.qr_raster";
+    /** Timer: parsing a UPI app response */
+    public static final String PARSE_RESPONSE = "upi.parse_response";
+    /** Counter, tagged by NPCI response code */
+    public static final String RESPONSE_CODE = "upi.response_code";
+    /** Counter, tagged "package/STATUS" */
+    public static final String RESULT_BY_APP = "upi.result_by_app";
+
+    /** Target tag used when the user picks the app from the chooser */
+    public static final String CHOOSER = "chooser";
+
+    private static volatile MetricsSink sink = NoOpMetricsSink.INSTANCE;
+    private static volatile boolean enabled;
+
+    private UpiMetrics() {}
+
+    public static MetricsSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Install a sink; null restores the no-op default
+     */
+    public static void setSink(MetricsSink metricsSink) {
+        sink = metricsSink != null ? metricsSink : NoOpMetricsSink.INSTANCE;
+        enabled = metricsSink != null && metricsSink != NoOpMetricsSink.INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a timer; returns 0 when metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since a {@link #start()}; ignored if that start returned 0
+     */
+    public static void stop(String name, String tag, long startNanos) {
+        if (startNanos != 0 && enabled) {
+            sink.recordTiming(name, tag, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void increment(String name, String tag) {
+        if (enabled) {
+            sink.increment(name, tag, 1);
+        }
+    }
+
+    /**
+     * Record launch-to-result latency and outcome counters for a payment result
+     */
+    public static void recordResult(String targetPackage, long launchStartNanos, TransactionResponse response) {
+        if (!enabled) return;
+        String target = target(targetPackage);
+        stop(LAUNCH_TO_RESULT, target, launchStartNanos);
+        if (response.getResponseCode() != null) {
+            increment(RESPONSE_CODE, response.getResponseCode());
+        }
+        increment(RESULT_BY_APP, target + "/" + response.getStatus());
+    }
+
+    /**
+     * Tag for a launch target: the package, or {@link #CHOOSER} when none was chosen
+     */
+    public static String target(String targetPackage) {
+        return targetPackage != null && !targetPackage.isEmpty() ? targetPackage : CHOOSER;
+    }
+}
@@ -0,0 +1,138 @@
+package com.adamsnub.upilib.models;
+
+import java.io.Serializable;
+
+/**
+ * Immutable rupee amount stored as a whole number of paise.
+ *
+ * Parsing accepts the UPI {@code am} grammar ("100", "99.5", "99.50") with a
+ * hand-written scan, and formatting always produces the canonical two-decimal
+ * form, so amounts can be summed and compared without re-parsing strings.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long MAX_RUPEES = Long.MAX_VALUE / 100;
+
+    private final long paise;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        if (paise < 0) {
+            throw new IllegalArgumentException("Amount must not be negative");
+        }
+        return paise == 0 ? ZERO : new Money(paise);
+    }
+
+    public static Money ofRupees(long rupees) {
+        if (rupees < 0 || rupees > MAX_RUPEES) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+        return ofPaise(rupees * 100);
+    }
+
+    /**
+     * Parse an amount such as "99.50"
+     *
+     * @throws IllegalArgumentException if the text is not a valid amount
+     */
+    public static Money parse(String amount) {
+        long paise = parsePaise(amount);
+        if (paise < 0) {
+            throw new IllegalArgumentException("Amount must be valid decimal (e.g., 100.00)");
+        }
+        return ofPaise(paise);
+    }
+
+    /**
+     * Parse an amount into paise without allocating, or return -1 if it is invalid or overflows
+     */
+    public static long parsePaise(String amount) {
+        if (amount == null) return -1;
+        int length = amount.length();
+        long rupees = 0;
+        int i = 0;
+        for (; i < length; i++) {
+            char c = amount.charAt(i);
+            if (c < '0' || c > '9') break;
+            if (rupees > MAX_RUPEES / 10) return -1;
+            rupees = rupees * 10 + (c - '0');
+            if (rupees > MAX_RUPEES) return -1;
+        }
+        if (i == 0) return -1;
+        if (i == length) return rupees * 100;
+        if (amount.charAt(i) != '.') return -1;
+
+        int fractionDigits = length - i - 1;
+        if (fractionDigits < 1 || fractionDigits > 2) return -1;
+        char tens = amount.charAt(i + 1);
+        char units = fractionDigits == 2 ? amount.charAt(i + 2) : '0';
+        if (tens < '0' || tens > '9' || units < '0' || units > '9') return -1;
+        long paise = rupees * 100 + (tens - '0') * 10 + (units - '0');
+        return paise < 0 ? -1 : paise;
+    }
+
+    public long getPaise() {
+        return paise;
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public Money plus(Money other) {
+        long sum = paise + other.paise;
+        if (sum < paise) {
+            throw new ArithmeticException("Amount overflow");
+        }
+        return ofPaise(sum);
+    }
+
+    public Money minus(Money other) {
+        return ofPaise(paise - other.paise);
+    }
+
+    /**
+     * Append the canonical "rupees.paise" form, e.g. 1249.50
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        return appendPaise(out, paise);
+    }
+
+    /**
+     * Append paise in canonical two-decimal form without creating a Money
+     */
+    public static StringBuilder appendPaise(StringBuilder out, long paise) {
+        long fraction = paise % 100;
+        out.append(paise / 100).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return paise < other.paise ? -1 : (paise == other.paise ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).paise == paise;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (paise ^ (paise >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(20)).toString();
+    }
+}
@@ -1,20 +1,27 @@
 package com.adamsnub.upilib.models;
 
+import com.adamsnub.upilib.validation.UpiValidator;
+import com.adamsnub.upilib.validation.ValidationResult;
+
 import java.io.Serializable;
 
 public class PaymentRequest implements Serializable {
+    private static final long serialVersionUID = 2L;
+
     private String payeeVpa;
     private String payeeName;
-    private String amount;
+    private long amountPaise;
+    // Canonical form of amountPaise, built on first use
+    private transient String amount;
     private String transactionRef;
     private String transactionNote;
     private String currency;
     private String merchantCode;
     
-    private PaymentRequest(Builder builder) {
+    private PaymentRequest(Builder builder, long amountPaise) {
         this.payeeVpa = builder.payeeVpa;
         this.payeeName = builder.payeeName;
-        this.amount = builder.amount;
+        this.amountPaise = amountPaise;
         this.transactionRef = builder.transactionRef;
         this.transactionNote = builder.transactionNote;
         this.currency = builder.currency;
@@ -24,7 +31,22 @@ public class PaymentRequest implements Serializable {
     // Getters
     public String getPayeeVpa() { return payeeVpa; }
     public String getPayeeName() { return payeeName; }
-    public String getAmount() { return amount; }
+    
+    /**
+     * Amount in canonical two-decimal form, e.g. "99.50" for an amount set as "99.5"
+     */
+    public String getAmount() {
+        String text = amount;
+        if (text == null) {
+            text = Money.appendPaise(new StringBuilder(12), amountPaise).toString();
+            amount = text;
+        }
+        return text;
+    }
+    
+    public long getAmountPaise() { return amountPaise; }
+    
+    public Money getMoney() { return Money.ofPaise(amountPaise); }
     public String getTransactionRef() { return transactionRef; }
     public String getTransactionNote() { return transactionNote; }
     public String getCurrency() { return currency; }
@@ -54,6 +76,11 @@ public class PaymentRequest implements Serializable {
             return this;
         }
         
+        public Builder setAmount(Money amount) {
+            this.amount = amount != null ? amount.toString() : null;
+            return this;
+        }
+        
         public Builder setTransactionRef(String transactionRef) {
             this.transactionRef = transactionRef;
             return this;
@@ -74,21 +101,23 @@ public class PaymentRequest implements Serializable {
             return this;
         }
         
+        /**
+         * Check the fields with {@link UpiValidator}, without building
+         */
+        public ValidationResult validate() {
+            return UpiValidator.validate(payeeVpa, payeeName, amount, transactionRef);
+        }
+        
+        /**
+         * @throws IllegalStateException with the {@link ValidationResult} message if {@link #validate()} fails
+         */
         public PaymentRequest build() {
-            if (payeeVpa == null || payeeVpa.isEmpty()) {
-                throw new IllegalStateException("Payee VPA is required");
-            }
-            if (payeeName == null || payeeName.isEmpty()) {
-                throw new IllegalStateException("Payee name is required");
-            }
-            if (amount == null || amount.isEmpty()) {
-                throw new IllegalStateException("Amount is required");
-            }
-            if (transactionRef == null || transactionRef.isEmpty()) {
-                throw new IllegalStateException("Transaction reference is required");
+            ValidationResult result = validate();
+            if (!result.isValid()) {
+                throw new IllegalStateException(result.getMessage());
             }
             
-            return new PaymentRequest(this);
+            return new PaymentRequest(this, Money.parsePaise(amount));
         }
     }
 }
\ No newline at end of file
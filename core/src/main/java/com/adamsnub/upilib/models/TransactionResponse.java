@@ -4,7 +4,8 @@ public class TransactionResponse {
     private String transactionId;
     private String responseCode;
     private String approvalRefNo;
-    private String status;
+    private TransactionStatus status;
+    private UpiResponseCode responseCodeInfo;
     private String transactionRef;
     private String rawResponse;
 
@@ -13,6 +14,7 @@ public class TransactionResponse {
     public static final String STATUS_FAILURE = "FAILURE";
     public static final String STATUS_SUBMITTED = "SUBMITTED"; // Pending
     public static final String STATUS_CANCELLED = "CANCELLED";
+    public static final String STATUS_UNKNOWN = "UNKNOWN";   // Unrecognized response code
 
     public TransactionResponse() {}
 
@@ -31,6 +33,18 @@ public class TransactionResponse {
 
     public void setResponseCode(String responseCode) {
         this.responseCode = responseCode;
+        this.responseCodeInfo = null;
+    }
+
+    /**
+     * NPCI table entry for the response code, or null if there is no code.
+     * Unrecognized codes are returned with category UNKNOWN.
+     */
+    public UpiResponseCode getResponseCodeInfo() {
+        if (responseCodeInfo == null && responseCode != null) {
+            responseCodeInfo = UpiResponseCode.of(responseCode);
+        }
+        return responseCodeInfo;
     }
 
     public String getApprovalRefNo() {
@@ -42,10 +56,26 @@ public class TransactionResponse {
     }
 
     public String getStatus() {
-        return status;
+        return status != null ? status.getValue() : null;
     }
 
+    /**
+     * Set the status from a STATUS_* constant; unrecognized strings become STATUS_UNKNOWN
+     */
     public void setStatus(String status) {
+        if (status == null) {
+            this.status = null;
+            return;
+        }
+        TransactionStatus parsed = TransactionStatus.fromString(status);
+        this.status = parsed != null ? parsed : TransactionStatus.UNKNOWN;
+    }
+
+    public TransactionStatus getTransactionStatus() {
+        return status;
+    }
+
+    public void setTransactionStatus(TransactionStatus status) {
         this.status = status;
     }
 
@@ -67,18 +97,22 @@ public class TransactionResponse {
 
     // Helper methods to check status
     public boolean isSuccess() {
-        return STATUS_SUCCESS.equals(status);
+        return status == TransactionStatus.SUCCESS;
     }
 
     public boolean isFailure() {
-        return STATUS_FAILURE.equals(status);
+        return status == TransactionStatus.FAILURE;
     }
 
     public boolean isCancelled() {
-        return STATUS_CANCELLED.equals(status);
+        return status == TransactionStatus.CANCELLED;
     }
 
     public boolean isSubmitted() {
-        return STATUS_SUBMITTED.equals(status);
+        return status == TransactionStatus.SUBMITTED;
+    }
+
+    public boolean isUnknown() {
+        return status == TransactionStatus.UNKNOWN;
     }
 }
\ No newline at end of file
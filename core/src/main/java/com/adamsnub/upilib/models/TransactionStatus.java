@@ -0,0 +1,43 @@
+package com.adamsnub.upilib.models;
+
+/**
+ * Outcome of a UPI transaction.
+ *
+ * {@link #getValue()} returns the same strings as the {@code TransactionResponse.STATUS_*} constants.
+ */
+public enum TransactionStatus {
+    SUCCESS(TransactionResponse.STATUS_SUCCESS),
+    FAILURE(TransactionResponse.STATUS_FAILURE),
+    SUBMITTED(TransactionResponse.STATUS_SUBMITTED),  // Pending
+    CANCELLED(TransactionResponse.STATUS_CANCELLED),
+    UNKNOWN(TransactionResponse.STATUS_UNKNOWN);      // Response code not in the NPCI table
+
+    private static final TransactionStatus[] VALUES = values();
+
+    private final String value;
+
+    TransactionStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Map a status string (either a STATUS_* constant or a PSP "Status" field such as
+     * "success", "failed" or "submitted") case-insensitively, or null if it isn't recognized
+     */
+    public static TransactionStatus fromString(String status) {
+        if (status == null) return null;
+        for (TransactionStatus candidate : VALUES) {
+            if (candidate.value.equalsIgnoreCase(status)) {
+                return candidate;
+            }
+        }
+        if ("failed".equalsIgnoreCase(status)) {
+            return FAILURE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,185 @@
+package com.adamsnub.upilib.models;
+
+/**
+ * NPCI UPI response code with its description, category and whether a retry can help.
+ *
+ * Known codes live in a precomputed open-addressing table keyed by the packed
+ * code characters, so {@link #lookup(String)} is constant-time and allocation-free.
+ * Codes outside the table are returned by {@link #of(String)} with category
+ * {@link Category#UNKNOWN} so the raw code is still available.
+ */
+public final class UpiResponseCode {
+
+    public enum Category {
+        SUCCESS,
+        PENDING,
+        CUSTOMER,
+        REMITTER_BANK,
+        BENEFICIARY_BANK,
+        PSP,
+        SYSTEM,
+        UNKNOWN
+    }
+
+    private static final int TABLE_BITS = 8;
+    private static final UpiResponseCode[] TABLE = new UpiResponseCode[1 << TABLE_BITS];
+
+    static {
+        define("00", "Transaction successful", Category.SUCCESS, false);
+        define("01", "Transaction failed", Category.SYSTEM, true);
+        define("02", "Transaction declined", Category.SYSTEM, false);
+        define("91", "Transaction timed out, status pending", Category.PENDING, false);
+        define("96", "Transaction could not be processed", Category.SYSTEM, true);
+        define("BT", "Beneficiary bank timed out, status pending", Category.PENDING, false);
+        define("RB", "Credit not confirmed, status pending", Category.PENDING, false);
+        define("X1", "Response not received in time, status pending", Category.PENDING, false);
+        define("U09", "Authorisation request timed out", Category.PSP, true);
+        define("U14", "Encryption error", Category.PSP, true);
+        define("U16", "Risk threshold exceeded", Category.REMITTER_BANK, false);
+        define("U17", "PSP is not registered", Category.PSP, false);
+        define("U19", "Authorisation declined by customer", Category.CUSTOMER, true);
+        define("U28", "PSP not available", Category.PSP, true);
+        define("U30", "Debit has failed", Category.REMITTER_BANK, true);
+        define("U31", "Credit has failed", Category.BENEFICIARY_BANK, false);
+        define("U48", "Transaction id is not present, status pending", Category.PENDING, false);
+        define("U66", "Device fingerprint mismatch", Category.PSP, false);
+        define("U67", "Debit timed out, status pending", Category.PENDING, false);
+        define("U68", "Credit timed out, status pending", Category.PENDING, false);
+        define("U69", "Collect request expired", Category.CUSTOMER, true);
+        define("U70", "Received late response", Category.SYSTEM, false);
+        define("U78", "Beneficiary bank offline", Category.BENEFICIARY_BANK, true);
+        define("U80", "Remitter bank offline", Category.REMITTER_BANK, true);
+        define("XB", "Transaction not permitted", Category.REMITTER_BANK, false);
+        define("XH", "Account does not exist", Category.REMITTER_BANK, false);
+        define("XY", "Remitter bank core system offline", Category.REMITTER_BANK, true);
+        define("YE", "Remitting account blocked or frozen", Category.REMITTER_BANK, false);
+        define("Z6", "Number of PIN tries exceeded", Category.CUSTOMER, false);
+        define("Z7", "Transaction frequency limit exceeded", Category.CUSTOMER, true);
+        define("Z8", "Per transaction limit exceeded", Category.CUSTOMER, false);
+        define("Z9", "Insufficient funds in account", Category.CUSTOMER, true);
+        define("ZA", "Transaction declined by customer", Category.CUSTOMER, true);
+        define("ZD", "Validation error", Category.PSP, false);
+        define("ZE", "Transaction not permitted to the VPA", Category.BENEFICIARY_BANK, false);
+        define("ZG", "VPA restricted by customer", Category.BENEFICIARY_BANK, false);
+        define("ZH", "Invalid VPA", Category.BENEFICIARY_BANK, false);
+        define("ZM", "Invalid UPI PIN", Category.CUSTOMER, true);
+        define("ZX", "Inactive or dormant account", Category.REMITTER_BANK, false);
+    }
+
+    private final String code;
+    private final int key;
+    private final String description;
+    private final Category category;
+    private final boolean retryable;
+
+    private UpiResponseCode(String code, int key, String description, Category category, boolean retryable) {
+        this.code = code;
+        this.key = key;
+        this.description = description;
+        this.category = category;
+        this.retryable = retryable;
+    }
+
+    private static void define(String code, String description, Category category, boolean retryable) {
+        int key = pack(code);
+        int slot = slot(key);
+        while (TABLE[slot] != null) {
+            slot = (slot + 1) & (TABLE.length - 1);
+        }
+        TABLE[slot] = new UpiResponseCode(code, key, description, category, retryable);
+    }
+
+    /**
+     * Known table entry for a code (case-insensitive), or null
+     */
+    public static UpiResponseCode lookup(String code) {
+        int key = pack(code);
+        if (key == 0) return null;
+        int slot = slot(key);
+        UpiResponseCode entry;
+        while ((entry = TABLE[slot]) != null) {
+            if (entry.key == key) {
+                return entry;
+            }
+            slot = (slot + 1) & (TABLE.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Table entry for a code, or an UNKNOWN entry carrying the raw code; null for a null code
+     */
+    public static UpiResponseCode of(String code) {
+        if (code == null) return null;
+        UpiResponseCode known = lookup(code);
+        if (known != null) {
+            return known;
+        }
+        return new UpiResponseCode(code, pack(code), "Unknown response code", Category.UNKNOWN, false);
+    }
+
+    /**
+     * Pack 1-4 ASCII alphanumeric characters (upper-cased) into an int, or 0 if the code can't be packed
+     */
+    private static int pack(String code) {
+        if (code == null) return 0;
+        int length = code.length();
+        if (length == 0 || length > 4) return 0;
+        int key = 0;
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            } else if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return 0;
+            }
+            key = (key << 8) | c;
+        }
+        return key;
+    }
+
+    private static int slot(int key) {
+        return (key * 0x9E3779B1) >>> (32 - TABLE_BITS);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public boolean isKnown() {
+        return category != Category.UNKNOWN;
+    }
+
+    /**
+     * Transaction status implied by this code alone
+     */
+    public TransactionStatus toStatus() {
+        switch (category) {
+            case SUCCESS:
+                return TransactionStatus.SUCCESS;
+            case PENDING:
+                return TransactionStatus.SUBMITTED;
+            case UNKNOWN:
+                return TransactionStatus.UNKNOWN;
+            default:
+                return TransactionStatus.FAILURE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return code + " (" + description + ")";
+    }
+}
@@ -0,0 +1,66 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link ResponseSink} that counts responses by status and by response code.
+ */
+public class ResponseAggregator implements ResponseSink {
+    private static final String NO_CODE = "";
+
+    private final AtomicLong total = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> byStatus = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> byResponseCode = new ConcurrentHashMap<>();
+
+    @Override
+    public void accept(TransactionResponse response) {
+        total.incrementAndGet();
+        increment(byStatus, response.getStatus());
+        String code = response.getResponseCode();
+        increment(byResponseCode, code != null ? code : NO_CODE);
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Snapshot of counts keyed by status
+     */
+    public Map<String, Long> getCountsByStatus() {
+        return snapshot(byStatus);
+    }
+
+    /**
+     * Snapshot of counts keyed by response code; responses without a code are under ""
+     */
+    public Map<String, Long> getCountsByResponseCode() {
+        return snapshot(byResponseCode);
+    }
+
+    private static void increment(ConcurrentMap<String, AtomicLong> counts, String key) {
+        AtomicLong counter = counts.get(key);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = counts.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    private static Map<String, Long> snapshot(ConcurrentMap<String, AtomicLong> counts) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+/**
+ * Receives parsed responses from {@link UpiResponseBatchParser}.
+ *
+ * Called concurrently from worker threads, so implementations must be thread-safe.
+ */
+public interface ResponseSink {
+    void accept(TransactionResponse response);
+}
@@ -0,0 +1,92 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+/**
+ * Payment details read from a {@code upi://pay} link by {@link UpiUriParser}.
+ *
+ * Only the payee VPA is guaranteed. Static merchant QR codes usually carry just
+ * {@code pa} and {@code pn}, leaving the amount and transactionRef to the payer's
+ * app, so those are null when the link has none. Use {@link #toRequestBuilder()}
+ * and fill in whatever is missing before building a {@link PaymentRequest}.
+ */
+public class ScannedPayment {
+    private final String payeeVpa;
+    private final String payeeName;
+    private final String amount;
+    private final String transactionRef;
+    private final String transactionNote;
+    private final String currency;
+    private final String merchantCode;
+
+    ScannedPayment(String payeeVpa, String payeeName, String amount, String transactionRef,
+                   String transactionNote, String currency, String merchantCode) {
+        this.payeeVpa = payeeVpa;
+        this.payeeName = payeeName;
+        this.amount = amount;
+        this.transactionRef = transactionRef;
+        this.transactionNote = transactionNote;
+        this.currency = currency;
+        this.merchantCode = merchantCode;
+    }
+
+    public String getPayeeVpa() {
+        return payeeVpa;
+    }
+
+    /**
+     * Payee name, or null if the link has no {@code pn}
+     */
+    public String getPayeeName() {
+        return payeeName;
+    }
+
+    /**
+     * Amount as written in the link, or null for a code where the payer enters the amount
+     */
+    public String getAmount() {
+        return amount;
+    }
+
+    public boolean hasAmount() {
+        return amount != null;
+    }
+
+    /**
+     * Merchant's transaction reference, or null for a static code
+     */
+    public String getTransactionRef() {
+        return transactionRef;
+    }
+
+    public String getTransactionNote() {
+        return transactionNote;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getMerchantCode() {
+        return merchantCode;
+    }
+
+    /**
+     * A request builder holding every field present in the link
+     */
+    public PaymentRequest.Builder toRequestBuilder() {
+        PaymentRequest.Builder builder = new PaymentRequest.Builder()
+                .setPayeeVpa(payeeVpa)
+                .setPayeeName(payeeName)
+                .setAmount(amount)
+                .setTransactionRef(transactionRef)
+                .setMerchantCode(merchantCode);
+        if (transactionNote != null) {
+            builder.setTransactionNote(transactionNote);
+        }
+        if (currency != null) {
+            builder.setCurrency(currency);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,120 @@
+package com.adamsnub.upilib.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Re-parses newline-delimited raw UPI responses (for example exported
+ * {@code TransactionResponse.getRawResponse()} values) in parallel.
+ *
+ * One thread reads lines into fixed-size chunks and worker threads parse them.
+ * At most {@code 2 * threads} chunks are in memory at once, so memory stays
+ * bounded regardless of input size. Blank lines are skipped.
+ */
+public class UpiResponseBatchParser {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final int threads;
+    private final int chunkSize;
+
+    public UpiResponseBatchParser() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public UpiResponseBatchParser(int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("threads and chunkSize must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parse every line of the file into the sink, returning the number of responses parsed
+     */
+    public long parse(File file, ResponseSink sink) throws IOException, InterruptedException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return parse(in, sink);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Parse every line of the stream into the sink, returning the number of responses parsed.
+     * Stops at the first exception or error thrown by the sink and rethrows it once the
+     * workers have finished. The stream is not closed.
+     */
+    public long parse(InputStream in, final ResponseSink sink) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8), 64 * 1024);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        final Semaphore inFlight = new Semaphore(threads * 2);
+        final AtomicLong parsed = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                if (line.isEmpty()) continue;
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    submit(workers, inFlight, chunk, sink, parsed, failure);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(workers, inFlight, chunk, sink, parsed, failure);
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw (RuntimeException) error;
+        }
+        return parsed.get();
+    }
+
+    private static void submit(ExecutorService workers, final Semaphore inFlight, final List<String> chunk,
+                               final ResponseSink sink, final AtomicLong parsed,
+                               final AtomicReference<Throwable> failure) throws InterruptedException {
+        // Blocks the reader when workers fall behind
+        inFlight.acquire();
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (String raw : chunk) {
+                        sink.accept(UpiResponseParser.parse(raw));
+                    }
+                    parsed.addAndGet(chunk.size());
+                } catch (Throwable t) {
+                    // Errors too, or the batch would come back short with nothing reported
+                    failure.compareAndSet(null, t);
+                } finally {
+                    inFlight.release();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.metrics.UpiMetrics;
+import com.adamsnub.upilib.models.TransactionResponse;
+import com.adamsnub.upilib.models.TransactionStatus;
+import com.adamsnub.upilib.models.UpiResponseCode;
+
+import java.nio.charset.Charset;
+
+public class UpiResponseParser {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String KEY_TXN_ID = "txnId";
+    private static final String KEY_RESPONSE_CODE = "responseCode";
+    private static final String KEY_APPROVAL_REF_NO = "ApprovalRefNo";
+    private static final String KEY_STATUS = "Status";
+    private static final String KEY_TXN_REF = "txnRef";
+
+    public static TransactionResponse parse(String response) {
+        long start = UpiMetrics.start();
+        TransactionResponse transactionResponse = parseResponse(response);
+        UpiMetrics.stop(UpiMetrics.PARSE_RESPONSE, null, start);
+        return transactionResponse;
+    }
+
+    private static TransactionResponse parseResponse(String response) {
+        TransactionResponse transactionResponse = new TransactionResponse();
+        transactionResponse.setRawResponse(response);
+
+        if (response == null || response.isEmpty()) {
+            transactionResponse.setStatus(TransactionResponse.STATUS_CANCELLED);
+            return transactionResponse;
+        }
+
+        String txnId = null;
+        String responseCode = null;
+        String approvalRefNo = null;
+        String status = null;
+        String txnRef = null;
+        boolean hasPairs = false;
+
+        // Single pass over key=value pairs; values are only materialized for the keys we read
+        int length = response.length();
+        int pairStart = 0;
+        while (pairStart <= length) {
+            int pairEnd = response.indexOf('&', pairStart);
+            if (pairEnd < 0) {
+                pairEnd = length;
+            }
+            int equals = response.indexOf('=', pairStart);
+            if (equals >= 0 && equals < pairEnd) {
+                hasPairs = true;
+                int keyLength = equals - pairStart;
+                int valueStart = equals + 1;
+
+                if (keyMatches(response, pairStart, keyLength, KEY_TXN_ID)) {
+                    txnId = decode(response, valueStart, pairEnd);
+                } else if (keyMatches(response, pairStart, keyLength, KEY_RESPONSE_CODE)) {
+                    responseCode = decode(response, valueStart, pairEnd);
+                } else if (keyMatches(response, pairStart, keyLength, KEY_APPROVAL_REF_NO)) {
+                    approvalRefNo = decode(response, valueStart, pairEnd);
+                } else if (keyMatches(response, pairStart, keyLength, KEY_STATUS)) {
+                    status = decode(response, valueStart, pairEnd);
+                } else if (keyMatches(response, pairStart, keyLength, KEY_TXN_REF)) {
+                    txnRef = decode(response, valueStart, pairEnd);
+                }
+            }
+            pairStart = pairEnd + 1;
+        }
+
+        transactionResponse.setTransactionId(txnId);
+        transactionResponse.setResponseCode(responseCode);
+        transactionResponse.setApprovalRefNo(approvalRefNo);
+        if (txnRef != null) {
+            transactionResponse.setTransactionRef(txnRef);
+        }
+        transactionResponse.setTransactionStatus(hasPairs
+                ? determineStatus(status, responseCode)
+                : TransactionStatus.FAILURE);  // Treat a response without pairs as failure
+
+        return transactionResponse;
+    }
+
+    private static boolean keyMatches(String response, int keyStart, int keyLength, String key) {
+        return keyLength == key.length() && response.regionMatches(true, keyStart, key, 0, keyLength);
+    }
+
+    /**
+     * Decode a form-encoded value ('+' and %XX escapes, UTF-8). Malformed escapes are kept as-is.
+     */
+    static String decode(String source, int start, int end) {
+        boolean needsDecoding = false;
+        for (int i = start; i < end && !needsDecoding; i++) {
+            char c = source.charAt(i);
+            needsDecoding = c == '%' || c == '+';
+        }
+        if (!needsDecoding) {
+            return source.substring(start, end);
+        }
+
+        byte[] bytes = new byte[(end - start) * 3];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            int escaped;
+            if (c == '+') {
+                bytes[count++] = ' ';
+            } else if (c == '%' && (escaped = hexValue(source, i + 1, end)) >= 0) {
+                bytes[count++] = (byte) escaped;
+                i += 2;
+            } else if (c < 0x80) {
+                bytes[count++] = (byte) c;
+            } else {
+                int charCount = Character.isHighSurrogate(c) && i + 1 < end ? 2 : 1;
+                byte[] encoded = source.substring(i, i + charCount).getBytes(UTF_8);
+                i += charCount - 1;
+                for (byte b : encoded) {
+                    bytes[count++] = b;
+                }
+            }
+        }
+        return new String(bytes, 0, count, UTF_8);
+    }
+
+    private static int hexValue(String source, int index, int end) {
+        if (index + 1 >= end) return -1;
+        int high = Character.digit(source.charAt(index), 16);
+        int low = Character.digit(source.charAt(index + 1), 16);
+        if (high < 0 || low < 0) return -1;
+        return (high << 4) | low;
+    }
+
+    private static TransactionStatus determineStatus(String status, String responseCode) {
+        if (status != null) {
+            TransactionStatus parsed = TransactionStatus.fromString(status);
+            if (parsed == TransactionStatus.SUCCESS
+                    || parsed == TransactionStatus.FAILURE
+                    || parsed == TransactionStatus.SUBMITTED) {  // Treat "submitted" as pending
+                return parsed;
+            }
+        }
+
+        // Fall back to the NPCI response code table
+        if (responseCode != null) {
+            UpiResponseCode code = UpiResponseCode.lookup(responseCode);
+            return code != null ? code.toStatus() : TransactionStatus.UNKNOWN;
+        }
+
+        return TransactionStatus.FAILURE;  // Default to failure if there is neither status nor code
+    }
+}
@@ -0,0 +1,104 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.validation.UpiValidator;
+import com.adamsnub.upilib.validation.ValidationResult;
+
+/**
+ * Parses {@code upi://pay} strings, the inverse of {@code UpiIntentBuilder}.
+ *
+ * Scheme and host are matched case-insensitively, keys case-sensitively as in
+ * the UPI linking spec, and values are percent-decoded. Only {@code pa} is
+ * required, since static merchant codes leave the amount and transactionRef to
+ * the payer; a missing or malformed VPA, or a malformed amount, surfaces as
+ * {@link IllegalArgumentException}.
+ */
+public class UpiUriParser {
+
+    private static final String SCHEME_PREFIX = "upi://pay";
+    private static final int PA = 0;
+    private static final int PN = 1;
+    private static final int AM = 2;
+    private static final int TR = 3;
+    private static final int TN = 4;
+    private static final int CU = 5;
+    private static final int MC = 6;
+
+    /**
+     * True if content looks like a UPI payment link
+     */
+    public static boolean isUpiPayUri(String content) {
+        return content != null && content.regionMatches(true, 0, SCHEME_PREFIX, 0, SCHEME_PREFIX.length())
+                && (content.length() == SCHEME_PREFIX.length() || content.charAt(SCHEME_PREFIX.length()) == '?'
+                || content.charAt(SCHEME_PREFIX.length()) == '/');
+    }
+
+    public static ScannedPayment parse(String content) {
+        if (!isUpiPayUri(content)) {
+            throw new IllegalArgumentException("Not a upi://pay URI");
+        }
+
+        String[] values = new String[MC + 1];
+        int query = content.indexOf('?', SCHEME_PREFIX.length());
+        int end = content.indexOf('#', SCHEME_PREFIX.length());
+        if (end < 0) {
+            end = content.length();
+        }
+
+        int pairStart = query < 0 ? end : query + 1;
+        while (pairStart < end) {
+            int pairEnd = content.indexOf('&', pairStart);
+            if (pairEnd < 0 || pairEnd > end) {
+                pairEnd = end;
+            }
+            int equals = content.indexOf('=', pairStart);
+            if (equals >= 0 && equals < pairEnd) {
+                apply(values, content, pairStart, equals, pairEnd);
+            }
+            pairStart = pairEnd + 1;
+        }
+
+        if (UpiValidator.isBlank(values[PA])) {
+            throw new IllegalArgumentException(ValidationResult.MISSING_VPA.getMessage());
+        }
+        if (!UpiValidator.isValidVpa(values[PA])) {
+            throw new IllegalArgumentException(ValidationResult.INVALID_VPA.getMessage());
+        }
+        if (values[AM] != null && !UpiValidator.isValidAmount(values[AM])) {
+            throw new IllegalArgumentException(ValidationResult.INVALID_AMOUNT.getMessage());
+        }
+        return new ScannedPayment(values[PA], values[PN], values[AM], values[TR], values[TN], values[CU], values[MC]);
+    }
+
+    private static void apply(String[] values, String content, int keyStart, int equals, int valueEnd) {
+        if (equals - keyStart != 2) return;
+
+        // Every UPI parameter we read has a two-letter key; only decode those values
+        int field;
+        switch (content.substring(keyStart, equals)) {
+            case "pa":
+                field = PA;
+                break;
+            case "pn":
+                field = PN;
+                break;
+            case "am":
+                field = AM;
+                break;
+            case "tr":
+                field = TR;
+                break;
+            case "tn":
+                field = TN;
+                break;
+            case "cu":
+                field = CU;
+                break;
+            case "mc":
+                field = MC;
+                break;
+            default:
+                return;
+        }
+        values[field] = UpiResponseParser.decode(content, equals + 1, valueEnd);
+    }
+}
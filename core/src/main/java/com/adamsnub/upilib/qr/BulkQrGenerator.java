@@ -0,0 +1,171 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiStringEncoder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Encodes many payment QR codes to PNG in parallel, for invoice and sticker batches.
+ *
+ * Requests are pulled from an iterator one at a time and encoded on a fork-join
+ * pool. Each worker thread keeps its own ZXing writer, UPI string encoder and PNG
+ * buffers. A semaphore limits how many requests are in flight, so the iterator is
+ * only advanced as fast as images are written and memory stays bounded.
+ *
+ * Close the generator when the batch is done: it shuts down a pool it created
+ * and frees the workers' PNG compressors. A pool passed in is left running.
+ */
+public class BulkQrGenerator implements Closeable {
+    private static final int DEFAULT_MODULE_PX = 8;
+
+    private final ForkJoinPool pool;
+    private final int modulePx;
+    private final int maxInFlight;
+    private final boolean ownsPool;
+
+    // Every worker ever created, so close() can reach those on other threads
+    private final ConcurrentLinkedQueue<Worker> allWorkers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            Worker worker = new Worker();
+            allWorkers.add(worker);
+            return worker;
+        }
+    };
+
+    public BulkQrGenerator() {
+        this(new ForkJoinPool(), DEFAULT_MODULE_PX, true);
+    }
+
+    public BulkQrGenerator(ForkJoinPool pool, int modulePx) {
+        this(pool, modulePx, false);
+    }
+
+    public BulkQrGenerator(ForkJoinPool pool, int modulePx, int maxInFlight) {
+        this(pool, modulePx, maxInFlight, false);
+    }
+
+    private BulkQrGenerator(ForkJoinPool pool, int modulePx, boolean ownsPool) {
+        this(pool, modulePx, pool.getParallelism() * 4, ownsPool);
+    }
+
+    private BulkQrGenerator(ForkJoinPool pool, int modulePx, int maxInFlight, boolean ownsPool) {
+        if (modulePx < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("modulePx and maxInFlight must be positive");
+        }
+        this.pool = pool;
+        this.modulePx = modulePx;
+        this.maxInFlight = maxInFlight;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Encode every request and write it to the sink, returning the number of images written.
+     * Stops at the first failure and rethrows it once in-flight work has drained; an Error
+     * is rethrown as is, anything else as an IOException.
+     */
+    public long generate(Iterator<PaymentRequest> requests, final QrOutputSink sink)
+            throws IOException, InterruptedException {
+        final Semaphore permits = new Semaphore(maxInFlight);
+        final AtomicLong written = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        long index = 0;
+
+        while (requests.hasNext() && failure.get() == null) {
+            final PaymentRequest request = requests.next();
+            final long requestIndex = index++;
+            permits.acquire();
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (failure.get() == null) {
+                            workers.get().write(request, requestIndex, sink);
+                            written.incrementAndGet();
+                        }
+                    } catch (Throwable t) {
+                        // Errors too, or the count would come back short with nothing reported
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        }
+
+        // Wait for in-flight images to finish
+        permits.acquire(maxInFlight);
+        permits.release(maxInFlight);
+
+        Throwable error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new IOException("QR generation failed", error);
+        }
+        return written.get();
+    }
+
+    public long generate(Iterable<PaymentRequest> requests, QrOutputSink sink)
+            throws IOException, InterruptedException {
+        return generate(requests.iterator(), sink);
+    }
+
+    /**
+     * Shut down a pool created by this generator and free the workers' compressors.
+     * Call only after generate() has returned.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+        Worker worker;
+        while ((worker = allWorkers.poll()) != null) {
+            worker.pngWriter.close();
+        }
+    }
+
+    private class Worker {
+        private final QRCodeWriter writer = new QRCodeWriter();
+        private final Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        private final UpiStringEncoder encoder = new UpiStringEncoder();
+        private final QrPngWriter pngWriter = new QrPngWriter();
+
+        Worker() {
+            hints.put(EncodeHintType.MARGIN, QrModuleMatrix.DEFAULT_QUIET_ZONE);
+        }
+
+        void write(PaymentRequest request, long index, QrOutputSink sink) throws IOException, WriterException {
+            String content = encoder.encode(request, request.getMerchantCode());
+            QrModuleMatrix matrix = QrModuleMatrix.fromBitMatrix(
+                    writer.encode(content, BarcodeFormat.QR_CODE, 0, 0, hints));
+
+            OutputStream out = new BufferedOutputStream(sink.open(request, index), 16 * 1024);
+            try {
+                pngWriter.write(matrix, modulePx, out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes each QR to {@code <directory>/<transactionRef>.png}. Characters that are
+ * unsafe in file names are replaced with '_'. When a name was already used by this
+ * sink, for example by two refs that differ only in unsafe characters, the request
+ * index is appended ({@code <transactionRef>-<index>.png}) instead of overwriting.
+ */
+public class DirectoryQrSink implements QrOutputSink {
+    private final File directory;
+    private final Set<String> usedNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public DirectoryQrSink(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public OutputStream open(PaymentRequest request, long index) throws IOException {
+        String base = fileName(request.getTransactionRef());
+        String name = base;
+        for (int attempt = 0; !usedNames.add(name); attempt++) {
+            name = attempt == 0 ? base + "-" + index : base + "-" + index + "-" + attempt;
+        }
+        return new FileOutputStream(new File(directory, name + ".png"));
+    }
+
+    private static String fileName(String transactionRef) {
+        StringBuilder name = new StringBuilder(transactionRef.length());
+        for (int i = 0; i < transactionRef.length(); i++) {
+            char c = transactionRef.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            name.append(safe ? c : '_');
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiStringEncoder;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+/**
+ * Encodes payment QR codes as sparse as possible for their display size.
+ *
+ * The payload comes from {@link UpiStringEncoder#encodeCompact}, and the code
+ * always uses the smallest version that holds it at level L. A stronger
+ * error-correction level is used when it fits in that same version (free
+ * redundancy), or when the display is large enough that even the bigger code
+ * keeps every module at least {@code 2 * minModulePx} pixels wide.
+ */
+public class QrDensityOptimizer {
+    private static final ErrorCorrectionLevel[] LEVELS_BY_STRENGTH = {
+            ErrorCorrectionLevel.H, ErrorCorrectionLevel.Q, ErrorCorrectionLevel.M, ErrorCorrectionLevel.L
+    };
+    private static final int DEFAULT_MIN_MODULE_PX = 4;
+    private static final int DEFAULT_MAX_PAYLOAD = 120;
+
+    private final int minModulePx;
+    private final int maxPayloadLength;
+    private final int quietZone;
+
+    public QrDensityOptimizer() {
+        this(DEFAULT_MIN_MODULE_PX, DEFAULT_MAX_PAYLOAD, QrModuleMatrix.DEFAULT_QUIET_ZONE);
+    }
+
+    /**
+     * @param minModulePx      smallest module edge in display pixels considered reliable to scan;
+     *                         stronger error correction is only traded for density above twice this
+     * @param maxPayloadLength target payload length; the note is trimmed to fit, 0 for no limit
+     * @param quietZone        light modules around the code
+     */
+    public QrDensityOptimizer(int minModulePx, int maxPayloadLength, int quietZone) {
+        this.minModulePx = minModulePx;
+        this.maxPayloadLength = maxPayloadLength;
+        this.quietZone = quietZone;
+    }
+
+    public Result encode(PaymentRequest request, int displaySizePx) throws WriterException {
+        String payload = new UpiStringEncoder().encodeCompact(request, request.getMerchantCode(), maxPayloadLength);
+        return encode(payload, displaySizePx);
+    }
+
+    public Result encode(String payload, int displaySizePx) throws WriterException {
+        QRCode sparsest = Encoder.encode(payload, ErrorCorrectionLevel.L);
+        int minimalVersion = sparsest.getVersion().getVersionNumber();
+        int comfortableModules = displaySizePx / (minModulePx * 2);
+
+        QRCode chosen = sparsest;
+        for (ErrorCorrectionLevel level : LEVELS_BY_STRENGTH) {
+            if (level == ErrorCorrectionLevel.L) break;
+            QRCode candidate;
+            try {
+                candidate = Encoder.encode(payload, level);
+            } catch (WriterException e) {
+                continue;  // Payload too long for this level
+            }
+            int modules = candidate.getMatrix().getWidth() + quietZone * 2;
+            if (candidate.getVersion().getVersionNumber() == minimalVersion || modules <= comfortableModules) {
+                chosen = candidate;
+                break;
+            }
+        }
+        return new Result(payload, chosen, QrModuleMatrix.fromByteMatrix(chosen.getMatrix(), quietZone), displaySizePx);
+    }
+
+    /**
+     * Chosen encoding for a payload
+     */
+    public static class Result {
+        private final String payload;
+        private final int version;
+        private final ErrorCorrectionLevel errorCorrectionLevel;
+        private final QrModuleMatrix matrix;
+        private final int modulePx;
+
+        Result(String payload, QRCode code, QrModuleMatrix matrix, int displaySizePx) {
+            this.payload = payload;
+            this.version = code.getVersion().getVersionNumber();
+            this.errorCorrectionLevel = code.getECLevel();
+            this.matrix = matrix;
+            this.modulePx = displaySizePx / matrix.getSize();
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * QR version 1-40; each step adds 4 modules per side
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        public ErrorCorrectionLevel getErrorCorrectionLevel() {
+            return errorCorrectionLevel;
+        }
+
+        public QrModuleMatrix getMatrix() {
+            return matrix;
+        }
+
+        /**
+         * Whole pixels per module at the requested display size
+         */
+        public int getModulePx() {
+            return modulePx;
+        }
+
+        @Override
+        public String toString() {
+            return "QR v" + version + "-" + errorCorrectionLevel + " " + matrix.getSize() + " modules, "
+                    + modulePx + "px/module, " + payload.length() + " chars";
+        }
+    }
+}
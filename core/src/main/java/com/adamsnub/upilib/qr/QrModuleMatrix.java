@@ -0,0 +1,103 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.metrics.UpiMetrics;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Square QR code at module resolution, one bit per module, quiet zone included.
+ *
+ * A typical UPI code packs into a few hundred bytes and is scaled to its
+ * display size only when drawn (see QrDrawable in the Android library).
+ */
+public final class QrModuleMatrix {
+    public static final int DEFAULT_QUIET_ZONE = 4;
+
+    private final int size;
+    private final long[] bits;
+
+    private QrModuleMatrix(int size, long[] bits) {
+        this.size = size;
+        this.bits = bits;
+    }
+
+    public static QrModuleMatrix encode(String content) throws WriterException {
+        return encode(content, DEFAULT_QUIET_ZONE);
+    }
+
+    public static QrModuleMatrix encode(String content, int quietZone) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, quietZone);
+        long start = UpiMetrics.start();
+        QrModuleMatrix matrix = fromBitMatrix(new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints));
+        UpiMetrics.stop(UpiMetrics.QR_ENCODE, null, start);
+        return matrix;
+    }
+
+    /**
+     * Pack a module-resolution ZXing matrix
+     */
+    public static QrModuleMatrix fromBitMatrix(BitMatrix matrix) {
+        int size = matrix.getWidth();
+        long[] bits = new long[(size * size + 63) >>> 6];
+        for (int y = 0; y < size; y++) {
+            int rowStart = y * size;
+            for (int x = 0; x < size; x++) {
+                if (matrix.get(x, y)) {
+                    int index = rowStart + x;
+                    bits[index >>> 6] |= 1L << (index & 63);
+                }
+            }
+        }
+        return new QrModuleMatrix(size, bits);
+    }
+
+    /**
+     * Pack a ZXing encoder matrix (no quiet zone), adding quietZone light modules on every side
+     */
+    public static QrModuleMatrix fromByteMatrix(ByteMatrix matrix, int quietZone) {
+        int inner = matrix.getWidth();
+        int size = inner + quietZone * 2;
+        long[] bits = new long[(size * size + 63) >>> 6];
+        for (int y = 0; y < inner; y++) {
+            int rowStart = (y + quietZone) * size + quietZone;
+            for (int x = 0; x < inner; x++) {
+                if (matrix.get(x, y) == 1) {
+                    int index = rowStart + x;
+                    bits[index >>> 6] |= 1L << (index & 63);
+                }
+            }
+        }
+        return new QrModuleMatrix(size, bits);
+    }
+
+    /**
+     * Modules per side, including the quiet zone
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * True if the module at (x, y) is dark
+     */
+    public boolean get(int x, int y) {
+        int index = y * size + x;
+        return (bits[index >>> 6] & (1L << (index & 63))) != 0;
+    }
+
+    /**
+     * Approximate heap cost of the packed modules
+     */
+    public int getByteCount() {
+        return bits.length * 8;
+    }
+}
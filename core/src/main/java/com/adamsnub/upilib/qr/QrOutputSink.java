@@ -0,0 +1,15 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Supplies the destination for each QR image produced by {@link BulkQrGenerator}.
+ *
+ * Called concurrently from worker threads. The generator closes the returned stream.
+ */
+public interface QrOutputSink {
+    OutputStream open(PaymentRequest request, long index) throws IOException;
+}
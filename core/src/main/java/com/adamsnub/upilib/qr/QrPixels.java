@@ -0,0 +1,38 @@
+package com.adamsnub.upilib.qr;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * Pure-Java pixel fill used by the Android rasterizer, so the same row fill
+ * runs (and is benchmarked) on any JVM.
+ */
+public final class QrPixels {
+
+    private QrPixels() {}
+
+    /**
+     * Fill band with the scale pixel rows of module row y: offset light pixels,
+     * each module repeated scale times, light pixels up to size, then the first
+     * row copied into the remaining scale - 1 rows. band must hold size * scale ints.
+     */
+    public static void fillBand(BitMatrix matrix, int y, int scale, int offset, int size,
+                         int[] band, int dark, int light) {
+        int modules = matrix.getWidth();
+        int x = 0;
+        for (; x < offset; x++) {
+            band[x] = light;
+        }
+        for (int mx = 0; mx < modules; mx++) {
+            int color = matrix.get(mx, y) ? dark : light;
+            for (int i = 0; i < scale; i++) {
+                band[x++] = color;
+            }
+        }
+        for (; x < size; x++) {
+            band[x] = light;
+        }
+        for (int row = 1; row < scale; row++) {
+            System.arraycopy(band, 0, band, row * size, size);
+        }
+    }
+}
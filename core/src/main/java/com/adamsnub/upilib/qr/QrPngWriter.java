@@ -0,0 +1,137 @@
+package com.adamsnub.upilib.qr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a {@link QrModuleMatrix} as a 1-bit grayscale PNG without going through a Bitmap.
+ *
+ * The pixel buffer, compressor and output buffer are reused between images, so
+ * an instance is cheap to call repeatedly but must not be shared between threads.
+ * Close it when done to release the compressor's native memory.
+ */
+public class QrPngWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final ReusableBuffer compressed = new ReusableBuffer(8 * 1024);
+    private final byte[] header = new byte[13];
+    private final byte[] intBytes = new byte[4];
+    private final byte[] chunkBuffer = new byte[8 * 1024];
+    private byte[] raw = new byte[0];
+
+    /**
+     * Write the matrix with each module drawn as modulePx x modulePx pixels
+     */
+    public void write(QrModuleMatrix matrix, int modulePx, OutputStream out) throws IOException {
+        if (modulePx < 1) {
+            throw new IllegalArgumentException("modulePx must be positive");
+        }
+        int modules = matrix.getSize();
+        int size = modules * modulePx;
+        int rowBytes = 1 + (size + 7) / 8;
+        int rawLength = rowBytes * size;
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+
+        // Build one scanline per module row (filter byte 0, 1 = white), then repeat it
+        for (int my = 0; my < modules; my++) {
+            int rowStart = my * modulePx * rowBytes;
+            raw[rowStart] = 0;
+            for (int i = 1; i < rowBytes; i++) {
+                raw[rowStart + i] = (byte) 0xFF;
+            }
+            for (int mx = 0; mx < modules; mx++) {
+                if (!matrix.get(mx, my)) continue;
+                int x = mx * modulePx;
+                for (int px = x; px < x + modulePx; px++) {
+                    raw[rowStart + 1 + (px >>> 3)] &= (byte) ~(0x80 >>> (px & 7));
+                }
+            }
+            for (int repeat = 1; repeat < modulePx; repeat++) {
+                System.arraycopy(raw, rowStart, raw, rowStart + repeat * rowBytes, rowBytes);
+            }
+        }
+
+        compressed.reset();
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int count = deflater.deflate(chunkBuffer);
+            compressed.write(chunkBuffer, 0, count);
+        }
+
+        writeInt(header, 0, size);
+        writeInt(header, 4, size);
+        header[8] = 1;   // bit depth
+        header[9] = 0;   // grayscale
+        header[10] = 0;  // deflate
+        header[11] = 0;  // adaptive filtering
+        header[12] = 0;  // no interlace
+
+        out.write(SIGNATURE);
+        writeChunk(out, IHDR, header, header.length);
+        writeChunk(out, IDAT, compressed.buffer(), compressed.size());
+        writeChunk(out, IEND, header, 0);
+    }
+
+    /**
+     * Encode to a new byte array
+     */
+    public byte[] toByteArray(QrModuleMatrix matrix, int modulePx) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(matrix, modulePx, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Release the compressor; the writer cannot be used afterwards
+     */
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private void writeChunk(OutputStream out, byte[] type, byte[] data, int length) throws IOException {
+        writeInt(intBytes, 0, length);
+        out.write(intBytes);
+        out.write(type);
+        out.write(data, 0, length);
+
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        writeInt(intBytes, 0, (int) crc.getValue());
+        out.write(intBytes);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Exposes the internal array so compressed data is written without a copy
+     */
+    private static class ReusableBuffer extends ByteArrayOutputStream {
+        ReusableBuffer(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
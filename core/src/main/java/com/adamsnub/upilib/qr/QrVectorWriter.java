@@ -0,0 +1,175 @@
+package com.adamsnub.upilib.qr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Writes a {@link QrModuleMatrix} as vector graphics (SVG or PDF) for print.
+ *
+ * Dark modules are merged into rectangles: horizontal runs within a row are
+ * extended downwards while the rows below contain the same run, so finder
+ * patterns and solid areas collapse into a handful of path segments.
+ * Coordinates are in modules and scaled by the output format, never rasterized.
+ */
+public final class QrVectorWriter {
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private QrVectorWriter() {}
+
+    /**
+     * Receives merged rectangles in module units
+     */
+    public interface RectangleSink {
+        void rectangle(int x, int y, int width, int height) throws IOException;
+    }
+
+    /**
+     * Emit the dark area of the matrix as non-overlapping rectangles
+     */
+    public static void forEachRectangle(QrModuleMatrix matrix, RectangleSink sink) throws IOException {
+        int size = matrix.getSize();
+        boolean[] covered = new boolean[size * size];
+        for (int y = 0; y < size; y++) {
+            int x = 0;
+            while (x < size) {
+                if (!matrix.get(x, y) || covered[y * size + x]) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < size && matrix.get(x, y) && !covered[y * size + x]) {
+                    x++;
+                }
+                int width = x - start;
+
+                // Grow the run downwards while the next row has the same uncovered run
+                int height = 1;
+                while (y + height < size && sameRun(matrix, covered, start, width, y + height)) {
+                    height++;
+                }
+                for (int row = y; row < y + height; row++) {
+                    for (int col = start; col < start + width; col++) {
+                        covered[row * size + col] = true;
+                    }
+                }
+                sink.rectangle(start, y, width, height);
+            }
+        }
+    }
+
+    private static boolean sameRun(QrModuleMatrix matrix, boolean[] covered, int start, int width, int y) {
+        int size = matrix.getSize();
+        for (int x = start; x < start + width; x++) {
+            if (!matrix.get(x, y) || covered[y * size + x]) return false;
+        }
+        // The run must not continue past its ends, otherwise the row is better merged on its own
+        boolean extendsLeft = start > 0 && matrix.get(start - 1, y) && !covered[y * size + start - 1];
+        boolean extendsRight = start + width < size && matrix.get(start + width, y);
+        return !extendsLeft && !extendsRight;
+    }
+
+    /**
+     * Write a standalone SVG sized sizeMm x sizeMm that scales to any resolution
+     */
+    public static void writeSvg(QrModuleMatrix matrix, double sizeMm, final Writer out) throws IOException {
+        int size = matrix.getSize();
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"");
+        out.write(formatNumber(sizeMm));
+        out.write("mm\" height=\"");
+        out.write(formatNumber(sizeMm));
+        out.write("mm\" viewBox=\"0 0 " + size + " " + size + "\" shape-rendering=\"crispEdges\">\n");
+        out.write("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>\n<path fill=\"#000\" d=\"");
+        forEachRectangle(matrix, new RectangleSink() {
+            @Override
+            public void rectangle(int x, int y, int width, int height) throws IOException {
+                out.write("M" + x + " " + y + "h" + width + "v" + height + "h-" + width + "z");
+            }
+        });
+        out.write("\"/>\n</svg>\n");
+        out.flush();
+    }
+
+    /**
+     * Write a single-page PDF containing only the QR code, sizePt x sizePt points (1pt = 1/72 in)
+     */
+    public static void writePdf(QrModuleMatrix matrix, double sizePt, OutputStream out) throws IOException {
+        int size = matrix.getSize();
+        final StringBuilder content = new StringBuilder(4096);
+        double scale = sizePt / size;
+
+        // Flip to a top-left origin in module units, then fill white and the merged dark rectangles
+        content.append("q ").append(formatNumber(scale)).append(" 0 0 ").append(formatNumber(-scale))
+                .append(" 0 ").append(formatNumber(sizePt)).append(" cm\n");
+        content.append("1 g 0 0 ").append(size).append(' ').append(size).append(" re f\n0 g\n");
+        forEachRectangle(matrix, new RectangleSink() {
+            @Override
+            public void rectangle(int x, int y, int width, int height) {
+                content.append(x).append(' ').append(y).append(' ')
+                        .append(width).append(' ').append(height).append(" re\n");
+            }
+        });
+        content.append("f\nQ\n");
+        byte[] stream = content.toString().getBytes(US_ASCII);
+
+        String box = formatNumber(sizePt);
+        String[] objects = {
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + box + " " + box + "] /Contents 4 0 R >>",
+                null
+        };
+
+        CountingOutput pdf = new CountingOutput(out);
+        long[] offsets = new long[objects.length];
+        pdf.write("%PDF-1.4\n");
+        for (int i = 0; i < objects.length; i++) {
+            offsets[i] = pdf.count;
+            pdf.write((i + 1) + " 0 obj\n");
+            if (objects[i] != null) {
+                pdf.write(objects[i]);
+            } else {
+                pdf.write("<< /Length " + stream.length + " >>\nstream\n");
+                pdf.write(stream);
+                pdf.write("endstream");
+            }
+            pdf.write("\nendobj\n");
+        }
+
+        long xref = pdf.count;
+        pdf.write("xref\n0 " + (objects.length + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            pdf.write(String.format(Locale.US, "%010d 00000 n \n", offset));
+        }
+        pdf.write("trailer\n<< /Size " + (objects.length + 1) + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private static String formatNumber(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.US, "%.6f", value);
+    }
+
+    private static class CountingOutput {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(String text) throws IOException {
+            write(text.getBytes(US_ASCII));
+        }
+
+        void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            count += bytes.length;
+        }
+    }
+}
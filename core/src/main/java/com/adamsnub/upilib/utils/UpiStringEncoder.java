@@ -0,0 +1,199 @@
+package com.adamsnub.upilib.utils;
+
+import com.adamsnub.upilib.models.Money;
+import com.adamsnub.upilib.models.PaymentRequest;
+
+/**
+ * Writes {@code upi://pay} strings directly into a reusable buffer.
+ *
+ * Output matches building the URI with {@code android.net.Uri.Builder} (same
+ * parameter order, same percent-encoding as {@code Uri.encode}) except that
+ * {@code am} is always written in canonical two-decimal form. This class has no
+ * Android dependency. Instances reuse their buffer and are not
+ * thread-safe; use one per thread.
+ */
+public final class UpiStringEncoder {
+    public static final String SCHEME_PREFIX = "upi://pay";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final String DEFAULT_CURRENCY = "INR";
+    private static final boolean[] UNRESERVED = new boolean[128];
+    private static final boolean[] QUERY_SAFE = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) UNRESERVED[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) UNRESERVED[c] = true;
+        for (char c = '0'; c <= '9'; c++) UNRESERVED[c] = true;
+        for (char c : "_-!.~'()*".toCharArray()) UNRESERVED[c] = true;
+
+        // Characters RFC 3986 allows unescaped in a query value, minus the pair delimiters and '+'
+        System.arraycopy(UNRESERVED, 0, QUERY_SAFE, 0, UNRESERVED.length);
+        for (char c : "@:/?$,;".toCharArray()) QUERY_SAFE[c] = true;
+    }
+
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    public String encode(PaymentRequest request) {
+        return encode(request, null);
+    }
+
+    /**
+     * Build the canonical UPI string, adding {@code mc} when merchantCode is set
+     */
+    public String encode(PaymentRequest request, String merchantCode) {
+        buffer.setLength(0);
+        encodeTo(buffer, request, merchantCode);
+        return buffer.toString();
+    }
+
+    /**
+     * Append the canonical UPI string for the request to out
+     */
+    public static StringBuilder encodeTo(StringBuilder out, PaymentRequest request, String merchantCode) {
+        out.append(SCHEME_PREFIX);
+        char separator = '?';
+        separator = appendParameter(out, separator, "pa", request.getPayeeVpa());
+        separator = appendParameter(out, separator, "pn", request.getPayeeName());
+        separator = appendAmount(out, separator, request.getAmountPaise());
+        separator = appendParameter(out, separator, "tr", request.getTransactionRef());
+        separator = appendParameter(out, separator, "cu", request.getCurrency());
+        separator = appendParameter(out, separator, "mode", "05");
+
+        // Add merchant code if provided
+        if (merchantCode != null && !merchantCode.isEmpty()) {
+            separator = appendParameter(out, separator, "mc", merchantCode);
+        }
+
+        String note = request.getTransactionNote();
+        if (note != null && !note.isEmpty()) {
+            appendParameter(out, separator, "tn", note);
+        }
+        return out;
+    }
+
+    /**
+     * Build the shortest UPI string accepted by UPI apps, for low-density QR codes.
+     *
+     * {@code cu} is omitted when it is the default INR, {@code mode} is omitted,
+     * only characters that would break query parsing are escaped, and the note is
+     * shortened (or dropped) so the result fits in maxLength characters where
+     * possible. Pass maxLength of 0 for no limit.
+     */
+    public String encodeCompact(PaymentRequest request, String merchantCode, int maxLength) {
+        buffer.setLength(0);
+        buffer.append(SCHEME_PREFIX);
+        char separator = '?';
+        separator = appendCompactParameter(buffer, separator, "pa", request.getPayeeVpa());
+        separator = appendCompactParameter(buffer, separator, "pn", request.getPayeeName());
+        separator = appendAmount(buffer, separator, request.getAmountPaise());
+        separator = appendCompactParameter(buffer, separator, "tr", request.getTransactionRef());
+        if (request.getCurrency() != null && !DEFAULT_CURRENCY.equals(request.getCurrency())) {
+            separator = appendCompactParameter(buffer, separator, "cu", request.getCurrency());
+        }
+        if (merchantCode != null && !merchantCode.isEmpty()) {
+            separator = appendCompactParameter(buffer, separator, "mc", merchantCode);
+        }
+
+        String note = request.getTransactionNote();
+        if (note != null && !note.isEmpty()) {
+            int withoutNote = buffer.length();
+            buffer.append(separator).append("tn=");
+            int noteStart = buffer.length();
+            for (int i = 0; i < note.length(); i++) {
+                int before = buffer.length();
+                char c = note.charAt(i);
+                if (Character.isHighSurrogate(c) && i + 1 < note.length()) {
+                    appendEscaped(buffer, note.substring(i, i + 2), QUERY_SAFE);
+                    i++;
+                } else {
+                    appendEscaped(buffer, c, QUERY_SAFE);
+                }
+                if (maxLength > 0 && buffer.length() > maxLength) {
+                    buffer.setLength(before);
+                    break;
+                }
+            }
+            if (buffer.length() == noteStart) {
+                buffer.setLength(withoutNote);
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Write am in canonical two-decimal form
+     */
+    private static char appendAmount(StringBuilder out, char separator, long paise) {
+        out.append(separator).append("am=");
+        Money.appendPaise(out, paise);
+        return '&';
+    }
+
+    private static char appendParameter(StringBuilder out, char separator, String key, String value) {
+        if (value == null) {
+            return separator;
+        }
+        out.append(separator).append(key).append('=');
+        appendEncoded(out, value);
+        return '&';
+    }
+
+    private static char appendCompactParameter(StringBuilder out, char separator, String key, String value) {
+        if (value == null) {
+            return separator;
+        }
+        out.append(separator).append(key).append('=');
+        appendEscaped(out, value, QUERY_SAFE);
+        return '&';
+    }
+
+    private static void appendEscaped(StringBuilder out, char c, boolean[] safe) {
+        if (c < 0x80 && safe[c]) {
+            out.append(c);
+        } else {
+            appendEscaped(out, String.valueOf(c), safe);
+        }
+    }
+
+    /**
+     * Percent-encode value as UTF-8 into out, leaving the same characters as {@code Uri.encode} unescaped
+     */
+    public static void appendEncoded(StringBuilder out, String value) {
+        appendEscaped(out, value, UNRESERVED);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value, boolean[] safe) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (safe[c]) {
+                    out.append(c);
+                } else {
+                    appendByte(out, c);
+                }
+            } else if (c < 0x800) {
+                appendByte(out, 0xC0 | (c >> 6));
+                appendByte(out, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendByte(out, 0xF0 | (codePoint >> 18));
+                appendByte(out, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: String.getBytes substitutes '?'
+                appendByte(out, '?');
+            } else {
+                appendByte(out, 0xE0 | (c >> 12));
+                appendByte(out, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(out, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendByte(StringBuilder out, int b) {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+}
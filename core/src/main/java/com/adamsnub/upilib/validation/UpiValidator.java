@@ -0,0 +1,106 @@
+package com.adamsnub.upilib.validation;
+
+import com.adamsnub.upilib.models.Money;
+import com.adamsnub.upilib.models.PaymentRequest;
+
+/**
+ * Single set of validation rules for payment fields, shared by the builders and
+ * {@code UpiIntentBuilder}.
+ *
+ * Matchers are hand-written character scans: no regex compilation, no
+ * allocation and no exceptions. Results are {@link ValidationResult} codes so
+ * large batches can be checked cheaply and reported per row.
+ */
+public final class UpiValidator {
+
+    private UpiValidator() {}
+
+    /**
+     * VPA of the form {@code handle@psp}: the handle may contain letters, digits,
+     * '.', '_' and '-', the PSP part letters, digits, '_' and '-'
+     */
+    public static boolean isValidVpa(String vpa) {
+        if (vpa == null) return false;
+        int at = -1;
+        int length = vpa.length();
+        for (int i = 0; i < length; i++) {
+            char c = vpa.charAt(i);
+            if (c == '@') {
+                if (at >= 0) return false;
+                at = i;
+            } else if (!isWordChar(c) && (c != '.' || at >= 0)) {
+                return false;
+            }
+        }
+        return at > 0 && at < length - 1;
+    }
+
+    /**
+     * Non-negative decimal with at most two fraction digits, e.g. "100", "99.5" or "99.50"
+     */
+    public static boolean isValidAmount(String amount) {
+        return Money.parsePaise(amount) >= 0;
+    }
+
+    /**
+     * True if value is null, empty or whitespace only
+     */
+    public static boolean isBlank(String value) {
+        if (value == null) return true;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Presence and format checks; returns the first problem found
+     */
+    public static ValidationResult validate(String payeeVpa, String payeeName, String amount,
+                                            String transactionRef) {
+        if (isBlank(payeeVpa)) return ValidationResult.MISSING_VPA;
+        if (!isValidVpa(payeeVpa)) return ValidationResult.INVALID_VPA;
+        if (isBlank(payeeName)) return ValidationResult.MISSING_PAYEE_NAME;
+        if (isBlank(amount)) return ValidationResult.MISSING_AMOUNT;
+        if (!isValidAmount(amount)) return ValidationResult.INVALID_AMOUNT;
+        if (isBlank(transactionRef)) return ValidationResult.MISSING_TRANSACTION_REF;
+        return ValidationResult.VALID;
+    }
+
+    public static ValidationResult validate(PaymentRequest request) {
+        return validate(request.getPayeeVpa(), request.getPayeeName(), request.getAmount(),
+                request.getTransactionRef());
+    }
+
+    /**
+     * Validate a batch of unbuilt requests, such as rows of an upload, into results (same
+     * length as builders), returning the number of invalid rows. These are the checks
+     * {@link PaymentRequest.Builder#build()} applies, so every VALID row builds.
+     */
+    public static int validateAll(PaymentRequest.Builder[] builders, ValidationResult[] results) {
+        if (results.length < builders.length) {
+            throw new IllegalArgumentException("results must be at least as long as builders");
+        }
+        int invalid = 0;
+        for (int i = 0; i < builders.length; i++) {
+            ValidationResult result = builders[i].validate();
+            results[i] = result;
+            if (result != ValidationResult.VALID) invalid++;
+        }
+        return invalid;
+    }
+
+    public static ValidationResult[] validateAll(PaymentRequest.Builder[] builders) {
+        ValidationResult[] results = new ValidationResult[builders.length];
+        validateAll(builders, results);
+        return results;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == '-';
+    }
+}
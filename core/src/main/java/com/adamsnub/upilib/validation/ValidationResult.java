@@ -0,0 +1,28 @@
+package com.adamsnub.upilib.validation;
+
+/**
+ * Outcome of {@link UpiValidator} checks. Everything except {@link #VALID} is an error code.
+ */
+public enum ValidationResult {
+    VALID("Valid"),
+    MISSING_VPA("Payee VPA is required"),
+    INVALID_VPA("Invalid VPA format"),
+    MISSING_PAYEE_NAME("Payee name is required"),
+    MISSING_AMOUNT("Amount is required"),
+    INVALID_AMOUNT("Amount must be valid decimal (e.g., 100.00)"),
+    MISSING_TRANSACTION_REF("Transaction reference is required");
+
+    private final String message;
+
+    ValidationResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
@@ -0,0 +1,145 @@
+package com.adamsnub.upilib.codec;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.models.TransactionResponse;
+import com.adamsnub.upilib.models.TransactionStatus;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UpiCodecTest {
+
+    @Test
+    public void paymentRequestRoundTrip() {
+        PaymentRequest request = new PaymentRequest.Builder()
+                .setPayeeVpa("merchant.store@okaxis")
+                .setPayeeName("Café Ünïcode 😀")
+                .setAmount("1249.5")
+                .setTransactionRef("ORD-2024-000123")
+                .setTransactionNote("Table #4")
+                .setMerchantCode("5411")
+                .build();
+        PaymentRequest decoded = UpiCodec.decodePaymentRequest(UpiCodec.encode(request));
+
+        assertEquals(request.getPayeeVpa(), decoded.getPayeeVpa());
+        assertEquals(request.getPayeeName(), decoded.getPayeeName());
+        assertEquals("1249.50", decoded.getAmount());
+        assertEquals(request.getTransactionRef(), decoded.getTransactionRef());
+        assertEquals(request.getTransactionNote(), decoded.getTransactionNote());
+        assertEquals("INR", decoded.getCurrency());
+        assertEquals("5411", decoded.getMerchantCode());
+    }
+
+    @Test
+    public void absentOptionalFieldsStayAbsent() {
+        PaymentRequest request = new PaymentRequest.Builder()
+                .setPayeeVpa("a@b").setPayeeName("N").setAmount("0").setTransactionRef("x")
+                .setTransactionNote(null).setCurrency("USD").build();
+        PaymentRequest decoded = UpiCodec.decodePaymentRequest(UpiCodec.encode(request));
+
+        assertNull(decoded.getTransactionNote());
+        assertNull(decoded.getMerchantCode());
+        assertEquals("USD", decoded.getCurrency());
+        assertEquals(0, decoded.getAmountPaise());
+    }
+
+    @Test
+    public void smallerThanJavaSerialization() throws IOException {
+        PaymentRequest request = new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis").setPayeeName("Shop").setAmount("149.00").setTransactionRef("ORD1").build();
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(request);
+        }
+        int encoded = UpiCodec.encode(request).length;
+        assertTrue(encoded + " bytes", encoded < 40);
+        assertTrue(encoded < serialized.size() / 4);
+    }
+
+    @Test
+    public void transactionResponseRoundTrip() {
+        for (TransactionStatus status : TransactionStatus.values()) {
+            TransactionResponse response = new TransactionResponse();
+            response.setTransactionStatus(status);
+            response.setTransactionId("AXIba164cbe05bac12d5157192fc44e63a6");
+            response.setResponseCode("U69");
+            response.setTransactionRef("ORD5962626691");
+            response.setRawResponse("txnId=AXI&responseCode=U69&ApprovalRefNo=&Status=SUBMITTED");
+
+            TransactionResponse decoded = UpiCodec.decodeTransactionResponse(UpiCodec.encode(response));
+            assertEquals(status, decoded.getTransactionStatus());
+            assertEquals(response.getTransactionId(), decoded.getTransactionId());
+            assertEquals("U69", decoded.getResponseCode());
+            assertNull(decoded.getApprovalRefNo());
+            assertEquals(response.getTransactionRef(), decoded.getTransactionRef());
+            assertEquals(response.getRawResponse(), decoded.getRawResponse());
+        }
+
+        TransactionResponse empty = UpiCodec.decodeTransactionResponse(UpiCodec.encode(new TransactionResponse()));
+        assertNull(empty.getTransactionStatus());
+        assertNull(empty.getTransactionId());
+    }
+
+    @Test
+    public void statusCodesAreFixed() {
+        TransactionStatus[] statuses = {
+                TransactionStatus.SUCCESS, TransactionStatus.FAILURE, TransactionStatus.SUBMITTED,
+                TransactionStatus.CANCELLED, TransactionStatus.UNKNOWN
+        };
+        for (int i = 0; i < statuses.length; i++) {
+            TransactionResponse response = new TransactionResponse();
+            response.setTransactionStatus(statuses[i]);
+            assertArrayEquals(new byte[] {UpiCodec.VERSION, (byte) (i + 1), 0}, UpiCodec.encode(response));
+        }
+        byte[] laterCode = {UpiCodec.VERSION, 42, 0};
+        assertEquals(TransactionStatus.UNKNOWN, UpiCodec.decodeTransactionResponse(laterCode).getTransactionStatus());
+    }
+
+    @Test
+    public void rejectsTruncatedAndNewerData() {
+        PaymentRequest request = new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis").setPayeeName("Shop").setAmount("1").setTransactionRef("ORD1").build();
+        byte[] data = UpiCodec.encode(request);
+        for (int length = 0; length < data.length; length++) {
+            try {
+                UpiCodec.decodePaymentRequest(Arrays.copyOf(data, length));
+                fail("Decoded a record truncated to " + length + " bytes");
+            } catch (IllegalArgumentException | IllegalStateException expected) {
+                // Truncated
+            }
+        }
+        data[0] = (byte) (UpiCodec.VERSION + 1);
+        try {
+            UpiCodec.decodePaymentRequest(data);
+            fail("Decoded a record from a newer version");
+        } catch (IllegalArgumentException expected) {
+            // Newer version
+        }
+    }
+
+    @Test
+    public void varintsAndStrings() {
+        long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE};
+        String[] strings = {"", "ascii", "₹ 100", "😀", "a\u0000b"};
+        CompactWriter writer = new CompactWriter(4);
+        for (long value : values) writer.writeVarLong(value);
+        for (String value : strings) writer.writeString(value);
+        assertEquals(1, new CompactWriter().writeVarLong(127).size());
+
+        CompactReader reader = new CompactReader(writer.toByteArray());
+        for (long value : values) assertEquals(value, reader.readVarLong());
+        for (String value : strings) assertEquals(value, reader.readString());
+        assertFalse(reader.hasRemaining());
+    }
+}
@@ -0,0 +1,76 @@
+package com.adamsnub.upilib.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void smallValuesHaveTheirOwnBuckets() {
+        for (int nanos = 0; nanos < 16; nanos++) {
+            assertEquals(nanos, Histogram.bucketIndex(nanos));
+            assertEquals(nanos, Histogram.bucketMidpoint(nanos));
+        }
+        assertEquals(16, Histogram.bucketIndex(16));
+    }
+
+    @Test
+    public void bucketsAreContiguousAndOrdered() {
+        int previous = Histogram.bucketIndex(15);
+        for (long nanos = 16; nanos < 1 << 16; nanos++) {
+            int index = Histogram.bucketIndex(nanos);
+            assertTrue(nanos + " -> " + index, index == previous || index == previous + 1);
+            previous = index;
+        }
+        // Eight sub-buckets per power of two
+        assertEquals(Histogram.bucketIndex(1 << 10) + 8, Histogram.bucketIndex(1 << 11));
+        assertEquals(Histogram.bucketIndex((1 << 10) + 128), Histogram.bucketIndex(1 << 10) + 1);
+    }
+
+    @Test
+    public void midpointIsWithinASixteenthOfEveryValueInTheBucket() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long nanos = 16 + (long) Math.pow(2, random.nextDouble() * 40);
+            long midpoint = Histogram.bucketMidpoint(Histogram.bucketIndex(nanos));
+            double error = Math.abs(midpoint - nanos) / (double) nanos;
+            assertTrue(nanos + " -> " + midpoint, error <= 1.0 / 16);
+        }
+    }
+
+    @Test
+    public void hugeValuesLandInTheLastBucket() {
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex((1L << 41) - 1));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(1L << 41));
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+        assertTrue(Histogram.bucketIndex(1L << 40) < Histogram.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws Exception {
+        final Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i * 1000L + offset);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TimerStats stats = histogram.snapshot();
+        assertEquals(80_000, stats.getCount());
+        long expectedTotal = 8 * (1000L * 10_000 * 10_001 / 2) + 10_000L * (0 + 1 + 2 + 3 + 4 + 5 + 6 + 7);
+        assertEquals(expectedTotal, stats.getTotalNanos());
+        assertEquals(10_000_007, stats.getMaxNanos());
+    }
+}
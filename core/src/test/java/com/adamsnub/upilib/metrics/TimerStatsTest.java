@@ -0,0 +1,111 @@
+package com.adamsnub.upilib.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimerStatsTest {
+
+    @Test
+    public void emptyTimerReportsZeros() {
+        TimerStats stats = new Histogram().snapshot();
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getMeanNanos());
+        assertEquals(0, stats.getP50Nanos());
+        assertEquals(0, stats.getP99Nanos());
+        assertEquals(0, stats.getMaxNanos());
+    }
+
+    @Test
+    public void meanAndMaxAreExact() {
+        Histogram histogram = new Histogram();
+        histogram.record(1_000);
+        histogram.record(2_000);
+        histogram.record(6_000);
+        histogram.record(-50);
+        TimerStats stats = histogram.snapshot();
+        assertEquals(4, stats.getCount());
+        assertEquals(9_000, stats.getTotalNanos());
+        assertEquals(2_250, stats.getMeanNanos());
+        assertEquals(6_000, stats.getMaxNanos());
+    }
+
+    @Test
+    public void percentilesAreWithinTheBucketError() {
+        Random random = new Random(7);
+        Histogram histogram = new Histogram();
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Log-normal around 2ms, like a launch latency
+            long nanos = (long) (2_000_000 * Math.exp(random.nextGaussian()));
+            samples.add(nanos);
+            histogram.record(nanos);
+        }
+        Collections.sort(samples);
+        TimerStats stats = histogram.snapshot();
+
+        double[] fractions = {0.01, 0.25, 0.50, 0.90, 0.99, 0.999};
+        for (double fraction : fractions) {
+            long exact = samples.get((int) Math.ceil(fraction * samples.size()) - 1);
+            long estimate = stats.getPercentileNanos(fraction);
+            assertTrue(fraction + ": " + estimate + " vs " + exact,
+                    Math.abs(estimate - exact) <= exact / 8);
+        }
+        assertEquals(stats.getPercentileNanos(0.50), stats.getP50Nanos());
+        assertEquals(stats.getPercentileNanos(0.90), stats.getP90Nanos());
+        assertEquals(stats.getPercentileNanos(0.99), stats.getP99Nanos());
+        assertEquals((long) samples.get(samples.size() - 1), stats.getPercentileNanos(1.0));
+    }
+
+    @Test
+    public void percentilesNeverExceedTheMax() {
+        Histogram histogram = new Histogram();
+        histogram.record(1_000_001);
+        TimerStats stats = histogram.snapshot();
+        assertEquals(1_000_001, stats.getP50Nanos());
+        assertEquals(1_000_001, stats.getP99Nanos());
+        assertEquals(1_000_001, stats.getPercentileNanos(0));
+    }
+
+    @Test
+    public void smallestFractionIsTheFirstSample() {
+        Histogram histogram = new Histogram();
+        for (int nanos = 1; nanos <= 10; nanos++) {
+            histogram.record(nanos);
+        }
+        TimerStats stats = histogram.snapshot();
+        assertEquals(1, stats.getPercentileNanos(0.0));
+        assertEquals(5, stats.getP50Nanos());
+        assertEquals(9, stats.getP90Nanos());
+        assertEquals(10, stats.getP99Nanos());
+    }
+
+    @Test
+    public void sinkKeepsATimerPerTag() {
+        InMemoryMetricsSink sink = new InMemoryMetricsSink();
+        sink.recordTiming("launch", "com.phonepe.app", 3_000);
+        sink.recordTiming("launch", "com.phonepe.app", 5_000);
+        sink.recordTiming("launch", null, 7_000);
+        sink.increment("result", "SUCCESS", 2);
+        sink.increment("result", null, 1);
+
+        assertEquals(2, sink.getTimer("launch", "com.phonepe.app").getCount());
+        assertEquals(4_000, sink.getTimer("launch", "com.phonepe.app").getMeanNanos());
+        assertEquals(7_000, sink.getTimer("launch", InMemoryMetricsSink.NO_TAG).getMaxNanos());
+        assertEquals(2, sink.getTimers("launch").size());
+        assertEquals(null, sink.getTimer("launch", "other"));
+        assertEquals(2, sink.getCounter("result", "SUCCESS"));
+        assertEquals(1, sink.getCounter("result", null));
+        assertEquals(0, sink.getCounter("missing", null));
+        assertEquals(2, sink.getCounters("result").size());
+
+        sink.reset();
+        assertTrue(sink.getTimers("launch").isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package com.adamsnub.upilib.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MoneyTest {
+
+    @Test
+    public void parsesUpiAmountGrammar() {
+        assertEquals(10000, Money.parsePaise("100"));
+        assertEquals(9950, Money.parsePaise("99.5"));
+        assertEquals(9950, Money.parsePaise("99.50"));
+        assertEquals(5, Money.parsePaise("0.05"));
+        assertEquals(0, Money.parsePaise("0"));
+    }
+
+    @Test
+    public void rejectsMalformedAmounts() {
+        String[] invalid = {null, "", ".", ".5", "1.", "1.234", "-1", "+1", "1,00", " 1", "1 ", "1e3", "abc",
+                "92233720368547758.08", "99999999999999999999"};
+        for (String amount : invalid) {
+            assertEquals(amount, -1, Money.parsePaise(amount));
+        }
+    }
+
+    @Test
+    public void formatsCanonicallyAndParsesBack() {
+        long[] samples = {0, 1, 9, 10, 99, 100, 101, 9950, 124950, Long.MAX_VALUE / 100 * 100};
+        for (long paise : samples) {
+            String text = Money.ofPaise(paise).toString();
+            assertTrue(text, text.matches("\\d+\\.\\d\\d"));
+            assertEquals(paise, Money.parsePaise(text));
+            assertEquals(Money.ofPaise(paise), Money.parse(text));
+        }
+        assertEquals("99.50", Money.parse("99.5").toString());
+        assertEquals("0.05", Money.ofPaise(5).toString());
+    }
+
+    @Test
+    public void arithmeticAndOrdering() {
+        Money a = Money.parse("10.25");
+        Money b = Money.ofRupees(3);
+        assertEquals("13.25", a.plus(b).toString());
+        assertEquals("7.25", a.minus(b).toString());
+        assertTrue(b.compareTo(a) < 0);
+        assertSame(Money.ZERO, Money.ofPaise(0));
+        assertTrue(Money.ZERO.isZero());
+        try {
+            b.minus(a);
+            fail("Negative result should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Negative amounts are not representable
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.adamsnub.upilib.models;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UpiResponseCodeTest {
+
+    // Every code defined in the table, with its category
+    private static final Object[][] DEFINED = {
+            {"00", UpiResponseCode.Category.SUCCESS},
+            {"01", UpiResponseCode.Category.SYSTEM},
+            {"02", UpiResponseCode.Category.SYSTEM},
+            {"91", UpiResponseCode.Category.PENDING},
+            {"96", UpiResponseCode.Category.SYSTEM},
+            {"BT", UpiResponseCode.Category.PENDING},
+            {"RB", UpiResponseCode.Category.PENDING},
+            {"X1", UpiResponseCode.Category.PENDING},
+            {"U09", UpiResponseCode.Category.PSP},
+            {"U14", UpiResponseCode.Category.PSP},
+            {"U16", UpiResponseCode.Category.REMITTER_BANK},
+            {"U17", UpiResponseCode.Category.PSP},
+            {"U19", UpiResponseCode.Category.CUSTOMER},
+            {"U28", UpiResponseCode.Category.PSP},
+            {"U30", UpiResponseCode.Category.REMITTER_BANK},
+            {"U31", UpiResponseCode.Category.BENEFICIARY_BANK},
+            {"U48", UpiResponseCode.Category.PENDING},
+            {"U66", UpiResponseCode.Category.PSP},
+            {"U67", UpiResponseCode.Category.PENDING},
+            {"U68", UpiResponseCode.Category.PENDING},
+            {"U69", UpiResponseCode.Category.CUSTOMER},
+            {"U70", UpiResponseCode.Category.SYSTEM},
+            {"U78", UpiResponseCode.Category.BENEFICIARY_BANK},
+            {"U80", UpiResponseCode.Category.REMITTER_BANK},
+            {"XB", UpiResponseCode.Category.REMITTER_BANK},
+            {"XH", UpiResponseCode.Category.REMITTER_BANK},
+            {"XY", UpiResponseCode.Category.REMITTER_BANK},
+            {"YE", UpiResponseCode.Category.REMITTER_BANK},
+            {"Z6", UpiResponseCode.Category.CUSTOMER},
+            {"Z7", UpiResponseCode.Category.CUSTOMER},
+            {"Z8", UpiResponseCode.Category.CUSTOMER},
+            {"Z9", UpiResponseCode.Category.CUSTOMER},
+            {"ZA", UpiResponseCode.Category.CUSTOMER},
+            {"ZD", UpiResponseCode.Category.PSP},
+            {"ZE", UpiResponseCode.Category.BENEFICIARY_BANK},
+            {"ZG", UpiResponseCode.Category.BENEFICIARY_BANK},
+            {"ZH", UpiResponseCode.Category.BENEFICIARY_BANK},
+            {"ZM", UpiResponseCode.Category.CUSTOMER},
+            {"ZX", UpiResponseCode.Category.REMITTER_BANK},
+    };
+
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    @Test
+    public void everyDefinedCodeResolvesToItsOwnEntry() {
+        for (Object[] row : DEFINED) {
+            String code = (String) row[0];
+            UpiResponseCode entry = UpiResponseCode.lookup(code);
+            assertNotNull(code, entry);
+            assertEquals(code, entry.getCode());
+            assertEquals(code, row[1], entry.getCategory());
+            assertTrue(code, entry.isKnown());
+            assertSame(code, entry, UpiResponseCode.of(code));
+        }
+    }
+
+    @Test
+    public void lookupIgnoresCase() {
+        for (Object[] row : DEFINED) {
+            String code = (String) row[0];
+            assertSame(code, UpiResponseCode.lookup(code), UpiResponseCode.lookup(code.toLowerCase(Locale.ROOT)));
+        }
+        assertSame(UpiResponseCode.lookup("U30"), UpiResponseCode.lookup("u30"));
+        assertSame(UpiResponseCode.lookup("ZM"), UpiResponseCode.lookup("zM"));
+    }
+
+    @Test
+    public void noOtherShortCodeIsFound() {
+        Set<String> defined = new HashSet<>();
+        for (Object[] row : DEFINED) {
+            defined.add((String) row[0]);
+        }
+        int found = 0;
+        for (int a = 0; a < ALPHANUMERIC.length(); a++) {
+            String one = String.valueOf(ALPHANUMERIC.charAt(a));
+            found += check(one, defined);
+            for (int b = 0; b < ALPHANUMERIC.length(); b++) {
+                String two = one + ALPHANUMERIC.charAt(b);
+                found += check(two, defined);
+                for (int c = 0; c < ALPHANUMERIC.length(); c++) {
+                    found += check(two + ALPHANUMERIC.charAt(c), defined);
+                }
+            }
+        }
+        assertEquals(defined.size(), found);
+    }
+
+    @Test
+    public void unknownCodesKeepTheRawCode() {
+        UpiResponseCode unknown = UpiResponseCode.of("QQ7");
+        assertEquals("QQ7", unknown.getCode());
+        assertEquals(UpiResponseCode.Category.UNKNOWN, unknown.getCategory());
+        assertFalse(unknown.isKnown());
+        assertFalse(unknown.isRetryable());
+        assertEquals(TransactionStatus.UNKNOWN, unknown.toStatus());
+        assertNull(UpiResponseCode.lookup("QQ7"));
+    }
+
+    @Test
+    public void emptyAndUnpackableCodes() {
+        assertNull(UpiResponseCode.lookup(null));
+        assertNull(UpiResponseCode.of(null));
+        assertNull(UpiResponseCode.lookup(""));
+        assertNull(UpiResponseCode.lookup("U3"));
+        assertNull(UpiResponseCode.lookup("U300"));
+        assertNull(UpiResponseCode.lookup("U30X1"));
+        assertNull(UpiResponseCode.lookup("U-30"));
+        assertNull(UpiResponseCode.lookup(" 00"));
+
+        UpiResponseCode empty = UpiResponseCode.of("");
+        assertEquals("", empty.getCode());
+        assertFalse(empty.isKnown());
+        assertEquals(UpiResponseCode.Category.UNKNOWN, UpiResponseCode.of("Z-").getCategory());
+    }
+
+    @Test
+    public void categoriesMapToStatuses() {
+        assertEquals(TransactionStatus.SUCCESS, UpiResponseCode.lookup("00").toStatus());
+        assertEquals(TransactionStatus.SUBMITTED, UpiResponseCode.lookup("91").toStatus());
+        assertEquals(TransactionStatus.SUBMITTED, UpiResponseCode.lookup("U48").toStatus());
+        assertEquals(TransactionStatus.FAILURE, UpiResponseCode.lookup("ZM").toStatus());
+        assertEquals(TransactionStatus.FAILURE, UpiResponseCode.lookup("U30").toStatus());
+    }
+
+    private static int check(String code, Set<String> defined) {
+        UpiResponseCode entry = UpiResponseCode.lookup(code);
+        if (entry == null) {
+            assertFalse(code, defined.contains(code));
+            return 0;
+        }
+        assertEquals(code, entry.getCode());
+        return 1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.adamsnub.upilib.parser;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResponseAggregatorTest {
+
+    @Test
+    public void countsByStatusAndResponseCode() {
+        ResponseAggregator aggregator = new ResponseAggregator();
+        aggregator.accept(UpiResponseParser.parse("txnId=1&responseCode=00&Status=SUCCESS"));
+        aggregator.accept(UpiResponseParser.parse("txnId=2&responseCode=00&Status=SUCCESS"));
+        aggregator.accept(UpiResponseParser.parse("txnId=3&responseCode=ZM&Status=FAILURE"));
+        aggregator.accept(UpiResponseParser.parse("txnId=4&Status=FAILURE"));
+
+        assertEquals(4, aggregator.getTotal());
+        Map<String, Long> byStatus = aggregator.getCountsByStatus();
+        assertEquals(Long.valueOf(2), byStatus.get("SUCCESS"));
+        assertEquals(Long.valueOf(2), byStatus.get("FAILURE"));
+        Map<String, Long> byCode = aggregator.getCountsByResponseCode();
+        assertEquals(Long.valueOf(2), byCode.get("00"));
+        assertEquals(Long.valueOf(1), byCode.get("ZM"));
+        assertEquals(Long.valueOf(1), byCode.get(""));
+        assertNull(byCode.get(null));
+    }
+
+    @Test
+    public void countsConcurrentResponses() throws Exception {
+        final ResponseAggregator aggregator = new ResponseAggregator();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final String code = t % 2 == 0 ? "00" : "U30";
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        aggregator.accept(UpiResponseParser.parse("responseCode=" + code + "&Status=SUCCESS"));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, aggregator.getTotal());
+        assertEquals(Long.valueOf(80000), aggregator.getCountsByStatus().get("SUCCESS"));
+        assertEquals(Long.valueOf(40000), aggregator.getCountsByResponseCode().get("00"));
+        assertEquals(Long.valueOf(40000), aggregator.getCountsByResponseCode().get("U30"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class UpiResponseBatchParserTest {
+
+    @Test
+    public void parsesEveryLineAcrossChunks() throws Exception {
+        List<String> lines = new ArrayList<>();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            String line = "txnId=T" + i + "&responseCode=00&Status=SUCCESS&txnRef=R" + i;
+            lines.add(line);
+            input.append(line).append('\n');
+            if (i % 7 == 0) input.append('\n');
+        }
+
+        final Map<String, String> seen = Collections.synchronizedMap(new HashMap<String, String>());
+        long parsed = new UpiResponseBatchParser(4, 3).parse(stream(input.toString()), new ResponseSink() {
+            @Override
+            public void accept(TransactionResponse response) {
+                seen.put(response.getTransactionRef(), response.getTransactionId());
+            }
+        });
+
+        assertEquals(lines.size(), parsed);
+        assertEquals(lines.size(), seen.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("T" + i, seen.get("R" + i));
+        }
+    }
+
+    @Test
+    public void emptyInputParsesNothing() throws Exception {
+        ResponseAggregator aggregator = new ResponseAggregator();
+        assertEquals(0, new UpiResponseBatchParser(2, 16).parse(stream("\n\n"), aggregator));
+        assertEquals(0, aggregator.getTotal());
+    }
+
+    @Test
+    public void rethrowsSinkException() throws Exception {
+        final IllegalStateException thrown = new IllegalStateException("sink failed");
+        try {
+            new UpiResponseBatchParser(2, 4).parse(stream(manyLines(100)), new ResponseSink() {
+                @Override
+                public void accept(TransactionResponse response) {
+                    throw thrown;
+                }
+            });
+            fail("Expected the sink's exception");
+        } catch (IllegalStateException e) {
+            assertSame(thrown, e);
+        }
+    }
+
+    @Test
+    public void rethrowsSinkError() throws Exception {
+        final StackOverflowError thrown = new StackOverflowError("sink failed");
+        try {
+            new UpiResponseBatchParser(2, 4).parse(stream(manyLines(100)), new ResponseSink() {
+                @Override
+                public void accept(TransactionResponse response) {
+                    throw thrown;
+                }
+            });
+            fail("Expected the sink's error");
+        } catch (StackOverflowError e) {
+            assertSame(thrown, e);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveThreads() {
+        new UpiResponseBatchParser(0, 16);
+    }
+
+    private static String manyLines(int count) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            input.append("txnId=T").append(i).append("&Status=FAILURE\n");
+        }
+        return input.toString();
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
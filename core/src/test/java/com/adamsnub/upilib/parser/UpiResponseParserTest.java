@@ -0,0 +1,122 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.TransactionResponse;
+import com.adamsnub.upilib.models.TransactionStatus;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class UpiResponseParserTest {
+
+    private static final String[] CORPORA = {"gpay", "phonepe", "paytm", "bhim", "amazonpay"};
+
+    @Test
+    public void matchesReferenceParseForEveryCorpusResponse() throws IOException {
+        for (String corpus : CORPORA) {
+            List<String> responses = load(corpus);
+            assertFalse(corpus, responses.isEmpty());
+            for (String response : responses) {
+                Map<String, String> fields = referenceParse(response);
+                TransactionResponse parsed = UpiResponseParser.parse(response);
+
+                assertEquals(response, parsed.getRawResponse());
+                assertEquals(response, fields.get("txnid"), parsed.getTransactionId());
+                assertEquals(response, fields.get("responsecode"), parsed.getResponseCode());
+                assertEquals(response, fields.get("approvalrefno"), parsed.getApprovalRefNo());
+                assertEquals(response, fields.get("txnref"), parsed.getTransactionRef());
+                assertNotNull(response, parsed.getTransactionStatus());
+
+                TransactionStatus status = TransactionStatus.fromString(fields.get("status"));
+                if (status == TransactionStatus.SUCCESS || status == TransactionStatus.FAILURE
+                        || status == TransactionStatus.SUBMITTED) {
+                    assertEquals(response, status, parsed.getTransactionStatus());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsThroughReencodedResponses() throws IOException {
+        for (String corpus : CORPORA) {
+            for (String response : load(corpus)) {
+                TransactionResponse parsed = UpiResponseParser.parse(response);
+                TransactionResponse reparsed = UpiResponseParser.parse(encode(parsed));
+
+                assertEquals(response, parsed.getTransactionId(), reparsed.getTransactionId());
+                assertEquals(response, parsed.getResponseCode(), reparsed.getResponseCode());
+                assertEquals(response, parsed.getApprovalRefNo(), reparsed.getApprovalRefNo());
+                assertEquals(response, parsed.getTransactionRef(), reparsed.getTransactionRef());
+                assertEquals(response, parsed.getTransactionStatus(), reparsed.getTransactionStatus());
+            }
+        }
+    }
+
+    @Test
+    public void emptyAndMalformedResponses() {
+        assertEquals(TransactionStatus.CANCELLED, UpiResponseParser.parse(null).getTransactionStatus());
+        assertEquals(TransactionStatus.CANCELLED, UpiResponseParser.parse("").getTransactionStatus());
+        assertEquals(TransactionStatus.FAILURE, UpiResponseParser.parse("garbage").getTransactionStatus());
+        assertEquals("100%", UpiResponseParser.parse("txnId=100%&Status=SUCCESS").getTransactionId());
+    }
+
+    private static List<String> load(String corpus) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = UpiResponseParserTest.class.getResourceAsStream("/responses/" + corpus + ".txt")) {
+            assertNotNull("Missing corpus " + corpus, in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Keys lower-cased, values form-decoded; a repeated key keeps its last value, as in the parser
+     */
+    private static Map<String, String> referenceParse(String response) throws UnsupportedEncodingException {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : response.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) continue;
+            String key = pair.substring(0, equals).toLowerCase(Locale.ROOT);
+            String value = URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+            fields.put(key, value);
+        }
+        return fields;
+    }
+
+    private static String encode(TransactionResponse response) throws UnsupportedEncodingException {
+        StringBuilder out = new StringBuilder();
+        append(out, "txnId", response.getTransactionId());
+        append(out, "responseCode", response.getResponseCode());
+        append(out, "ApprovalRefNo", response.getApprovalRefNo());
+        append(out, "Status", response.getStatus());
+        append(out, "txnRef", response.getTransactionRef());
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, String key, String value) throws UnsupportedEncodingException {
+        if (value == null) return;
+        if (out.length() > 0) out.append('&');
+        out.append(key).append('=').append(URLEncoder.encode(value, "UTF-8"));
+    }
+}
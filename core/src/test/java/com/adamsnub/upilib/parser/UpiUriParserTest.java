@@ -0,0 +1,130 @@
+package com.adamsnub.upilib.parser;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiStringEncoder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UpiUriParserTest {
+
+    private static final String[] NAMES = {
+            "Shop", "Corner Store & Cafe", "Café Ünïcode", "₹ Kirana #4", "a+b=c?d/e", "O'Brien (Ltd.)*!~",
+            "テスト", "emoji 😀 name", "100% pure", "tab\tand\nnewline"
+    };
+
+    private static final String[] NOTES = {
+            "", "Order 123", "Table #4 - 2x coffee, 1x sandwich", "50% off; paid @ counter", "नमस्ते"
+    };
+
+    @Test
+    public void staticMerchantCodeHasNoAmountOrReference() {
+        ScannedPayment payment = UpiUriParser.parse("upi://pay?pa=kirana.store@okaxis&pn=Kirana%20Store");
+        assertEquals("kirana.store@okaxis", payment.getPayeeVpa());
+        assertEquals("Kirana Store", payment.getPayeeName());
+        assertFalse(payment.hasAmount());
+        assertNull(payment.getAmount());
+        assertNull(payment.getTransactionRef());
+
+        PaymentRequest request = payment.toRequestBuilder().setAmount("49").setTransactionRef("ORD7").build();
+        assertEquals("kirana.store@okaxis", request.getPayeeVpa());
+        assertEquals("Kirana Store", request.getPayeeName());
+        assertEquals("ORD7", request.getTransactionRef());
+        assertEquals("INR", request.getCurrency());
+        assertEquals("", request.getTransactionNote());
+    }
+
+    @Test
+    public void readsEveryParameter() {
+        ScannedPayment payment = UpiUriParser.parse(
+                "UPI://PAY?pa=shop@ybl&pn=Shop&am=99.5&tr=T%2F1&tn=Tea%20%26%20snacks&cu=INR&mc=5411&mode=02#x");
+        assertTrue(payment.hasAmount());
+        assertEquals("99.5", payment.getAmount());
+        assertEquals("T/1", payment.getTransactionRef());
+        assertEquals("Tea & snacks", payment.getTransactionNote());
+        assertEquals("INR", payment.getCurrency());
+        assertEquals("5411", payment.getMerchantCode());
+        assertEquals(9950, payment.toRequestBuilder().build().getAmountPaise());
+    }
+
+    @Test
+    public void rejectsMissingOrMalformedFields() {
+        String[] invalid = {
+                null,
+                "",
+                "https://example.com/?pa=shop@ybl",
+                "upi://payx?pa=shop@ybl",
+                "upi://pay",
+                "upi://pay?pn=Shop&am=10",
+                "upi://pay?pa=&pn=Shop",
+                "upi://pay?pa=shop&pn=Shop",
+                "upi://pay?pa=sh%20op@ybl&pn=Shop",
+                "upi://pay?pa=shop@ybl&am=ten",
+                "upi://pay?pa=shop@ybl&am=1.234",
+                "upi://pay?pa=shop@ybl&am=-5",
+        };
+        for (String content : invalid) {
+            try {
+                UpiUriParser.parse(content);
+                fail("Accepted " + content);
+            } catch (IllegalArgumentException expected) {
+                // Rejected
+            }
+        }
+    }
+
+    @Test
+    public void recognisesUpiPayLinks() {
+        assertTrue(UpiUriParser.isUpiPayUri("upi://pay?pa=a@b"));
+        assertTrue(UpiUriParser.isUpiPayUri("Upi://Pay/?pa=a@b"));
+        assertTrue(UpiUriParser.isUpiPayUri("upi://pay"));
+        assertFalse(UpiUriParser.isUpiPayUri("upi://payment?pa=a@b"));
+        assertFalse(UpiUriParser.isUpiPayUri("upi://mandate?pa=a@b"));
+        assertFalse(UpiUriParser.isUpiPayUri(null));
+    }
+
+    @Test
+    public void parsesEncoderOutputBack() {
+        UpiStringEncoder encoder = new UpiStringEncoder();
+        for (String name : NAMES) {
+            for (String note : NOTES) {
+                PaymentRequest request = request(name, note, "USD");
+                PaymentRequest parsed = UpiUriParser.parse(encoder.encode(request, "5411")).toRequestBuilder().build();
+                assertEquals(request.getPayeeVpa(), parsed.getPayeeVpa());
+                assertEquals(request.getPayeeName(), parsed.getPayeeName());
+                assertEquals(request.getAmountPaise(), parsed.getAmountPaise());
+                assertEquals(request.getTransactionRef(), parsed.getTransactionRef());
+                assertEquals(request.getCurrency(), parsed.getCurrency());
+                assertEquals("5411", parsed.getMerchantCode());
+                assertEquals(note, parsed.getTransactionNote());
+            }
+        }
+    }
+
+    @Test
+    public void parsesCompactFormBack() {
+        PaymentRequest request = request("Corner Store & Cafe", "Table #4 - 2x coffee", "INR");
+        String compact = new UpiStringEncoder().encodeCompact(request, null, 0);
+        ScannedPayment parsed = UpiUriParser.parse(compact);
+        assertEquals(request.getPayeeName(), parsed.getPayeeName());
+        assertEquals(request.getTransactionNote(), parsed.getTransactionNote());
+        assertNull(parsed.getCurrency());
+        assertEquals("INR", parsed.toRequestBuilder().build().getCurrency());
+    }
+
+    private static PaymentRequest request(String name, String note, String currency) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa("merchant.store@okaxis")
+                .setPayeeName(name)
+                .setAmount("1249.50")
+                .setTransactionRef("ORD-5962626691")
+                .setTransactionNote(note)
+                .setCurrency(currency)
+                .build();
+    }
+}
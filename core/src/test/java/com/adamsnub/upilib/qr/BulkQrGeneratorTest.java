@@ -0,0 +1,142 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.utils.UpiStringEncoder;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class BulkQrGeneratorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void everyImageDecodesToItsRequest() throws Exception {
+        List<PaymentRequest> requests = requests(120);
+        MemorySink sink = new MemorySink();
+        try (BulkQrGenerator generator = new BulkQrGenerator(pool, 4, 8)) {
+            assertEquals(requests.size(), generator.generate(requests, sink));
+        }
+
+        assertEquals(requests.size(), sink.images.size());
+        UpiStringEncoder encoder = new UpiStringEncoder();
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentRequest request = requests.get(i);
+            ByteArrayOutputStream png = sink.images.get((long) i);
+            assertEquals(encoder.encode(request, request.getMerchantCode()), decode(png.toByteArray()));
+        }
+    }
+
+    @Test
+    public void ownPoolIsShutDownOnClose() throws Exception {
+        BulkQrGenerator generator = new BulkQrGenerator();
+        assertEquals(3, generator.generate(requests(3), new MemorySink()));
+        generator.close();
+    }
+
+    @Test
+    public void callerPoolIsLeftRunning() throws Exception {
+        new BulkQrGenerator(pool, 2).close();
+        assertFalse(pool.isShutdown());
+    }
+
+    @Test
+    public void sinkIOExceptionIsRethrown() throws Exception {
+        final IOException thrown = new IOException("disk full");
+        try (BulkQrGenerator generator = new BulkQrGenerator(pool, 2, 4)) {
+            generator.generate(requests(50), new QrOutputSink() {
+                @Override
+                public OutputStream open(PaymentRequest request, long index) throws IOException {
+                    if (index == 10) throw thrown;
+                    return new ByteArrayOutputStream();
+                }
+            });
+            fail("Expected the sink's IOException");
+        } catch (IOException e) {
+            assertSame(thrown, e);
+        }
+    }
+
+    @Test
+    public void errorIsRethrownNotSwallowed() throws Exception {
+        final StackOverflowError thrown = new StackOverflowError("sink failed");
+        try (BulkQrGenerator generator = new BulkQrGenerator(pool, 2, 4)) {
+            generator.generate(requests(50), new QrOutputSink() {
+                @Override
+                public OutputStream open(PaymentRequest request, long index) {
+                    if (index == 10) throw thrown;
+                    return new ByteArrayOutputStream();
+                }
+            });
+            fail("Expected the sink's error");
+        } catch (StackOverflowError e) {
+            assertSame(thrown, e);
+        }
+    }
+
+    static List<PaymentRequest> requests(int count) {
+        List<PaymentRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(new PaymentRequest.Builder()
+                    .setPayeeVpa("store" + (i % 7) + "@okaxis")
+                    .setPayeeName("Store #" + i)
+                    .setAmount((i + 1) + ".50")
+                    .setTransactionRef("INV/2024/" + i)
+                    .setTransactionNote(i % 3 == 0 ? "Sticker " + i : "")
+                    .setMerchantCode(i % 2 == 0 ? "5411" : null)
+                    .build());
+        }
+        return requests;
+    }
+
+    static String decode(byte[] png) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        Map<DecodeHintType, Object> hints = Collections.<DecodeHintType, Object>singletonMap(
+                DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+        return new QRCodeReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new RGBLuminanceSource(width, height, pixels))), hints).getText();
+    }
+
+    private static class MemorySink implements QrOutputSink {
+        final Map<Long, ByteArrayOutputStream> images = new ConcurrentHashMap<>();
+
+        @Override
+        public OutputStream open(PaymentRequest request, long index) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            images.put(index, out);
+            return out;
+        }
+    }
+}
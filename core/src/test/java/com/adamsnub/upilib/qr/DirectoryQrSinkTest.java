@@ -0,0 +1,59 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryQrSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesDecodablePngsNamedByTransactionRef() throws Exception {
+        File directory = new File(folder.getRoot(), "out");
+        List<PaymentRequest> requests = BulkQrGeneratorTest.requests(20);
+        try (BulkQrGenerator generator = new BulkQrGenerator()) {
+            assertEquals(20, generator.generate(requests, new DirectoryQrSink(directory)));
+        }
+
+        assertEquals(20, directory.list().length);
+        for (PaymentRequest request : requests) {
+            File file = new File(directory, request.getTransactionRef().replace('/', '_') + ".png");
+            assertTrue(file.getName(), file.isFile());
+            String content = BulkQrGeneratorTest.decode(Files.readAllBytes(file.toPath()));
+            assertTrue(content, content.contains("&tr=" + request.getTransactionRef().replace("/", "%2F") + "&"));
+        }
+    }
+
+    @Test
+    public void collidingNamesGetTheIndexAppended() throws Exception {
+        DirectoryQrSink sink = new DirectoryQrSink(folder.getRoot());
+        String[] refs = {"A/1", "A:1", "A_1", "A?1"};
+        for (int i = 0; i < refs.length; i++) {
+            sink.open(request(refs[i]), i).close();
+        }
+        // Both "A_1" and "A_1-2" are taken by then, so a counter follows the index
+        sink.open(request("A*1"), 2).close();
+
+        String[] names = folder.getRoot().list();
+        Arrays.sort(names);
+        assertArrayEquals(new String[] {"A_1-1.png", "A_1-2-1.png", "A_1-2.png", "A_1-3.png", "A_1.png"}, names);
+    }
+
+    private static PaymentRequest request(String ref) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis").setPayeeName("Shop").setAmount("1.00").setTransactionRef(ref).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.adamsnub.upilib.qr;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QrDensityOptimizerTest {
+
+    private static final String LONG_NOTE = "Invoice 2024-0042 for 3x masala chai, 2x samosa, 1x filter coffee, "
+            + "table 7, served by Ravi, thank you for visiting";
+
+    @Test
+    public void payloadFitsTheLimitByTrimmingTheNote() throws Exception {
+        QrDensityOptimizer.Result result = new QrDensityOptimizer(4, 120, 4).encode(request(LONG_NOTE), 600);
+        String payload = result.getPayload();
+        assertTrue(payload, payload.length() <= 120);
+        assertTrue(payload, payload.startsWith("upi://pay?pa=shop@okaxis&pn=Chai%20Point&am=180.00&tr=ORD42"));
+        assertTrue(payload, payload.contains("&tn=Invoice"));
+    }
+
+    @Test
+    public void noLimitKeepsTheWholeNote() throws Exception {
+        QrDensityOptimizer.Result result = new QrDensityOptimizer(4, 0, 4).encode(request(LONG_NOTE), 600);
+        assertTrue(result.getPayload(), result.getPayload().endsWith("thank%20you%20for%20visiting"));
+    }
+
+    @Test
+    public void encodedMatrixDecodesToThePayload() throws Exception {
+        QrDensityOptimizer optimizer = new QrDensityOptimizer();
+        for (int displaySize : new int[] {120, 300, 1200}) {
+            QrDensityOptimizer.Result result = optimizer.encode(request(LONG_NOTE), displaySize);
+            assertEquals(result.getPayload(), decode(result.getMatrix()));
+            assertEquals(displaySize / result.getMatrix().getSize(), result.getModulePx());
+        }
+    }
+
+    @Test
+    public void smallDisplayKeepsTheSmallestVersion() throws Exception {
+        QrDensityOptimizer.Result result = new QrDensityOptimizer().encode(request(LONG_NOTE), 150);
+        int minimal = Encoder.encode(result.getPayload(), ErrorCorrectionLevel.L).getVersion().getVersionNumber();
+        assertEquals(minimal, result.getVersion());
+        assertEquals(result.getVersion() * 4 + 17 + 8, result.getMatrix().getSize());
+    }
+
+    @Test
+    public void largeDisplayTradesDensityForErrorCorrection() throws Exception {
+        QrDensityOptimizer.Result result = new QrDensityOptimizer().encode(request("Order"), 4000);
+        assertEquals(ErrorCorrectionLevel.H, result.getErrorCorrectionLevel());
+    }
+
+    @Test
+    public void strongerLevelIsUsedWhenItFitsTheSameVersion() throws Exception {
+        String payload = "upi://pay?pa=a@b&pn=A&am=1.00&tr=1";
+        QrDensityOptimizer.Result result = new QrDensityOptimizer().encode(payload, 10);
+        int minimal = Encoder.encode(payload, ErrorCorrectionLevel.L).getVersion().getVersionNumber();
+        assertEquals(minimal, result.getVersion());
+        assertEquals(Encoder.encode(payload, result.getErrorCorrectionLevel()).getVersion().getVersionNumber(),
+                result.getVersion());
+        assertTrue(result.getErrorCorrectionLevel() != ErrorCorrectionLevel.L);
+    }
+
+    private static PaymentRequest request(String note) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis")
+                .setPayeeName("Chai Point")
+                .setAmount("180.00")
+                .setTransactionRef("ORD42")
+                .setTransactionNote(note)
+                .build();
+    }
+
+    private static String decode(QrModuleMatrix matrix) throws Exception {
+        int scale = 3;
+        int size = matrix.getSize() * scale;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pixels[y * size + x] = matrix.get(x / scale, y / scale) ? 0xFF000000 : 0xFFFFFFFF;
+            }
+        }
+        Map<DecodeHintType, Object> hints = Collections.<DecodeHintType, Object>singletonMap(
+                DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+        return new QRCodeReader().decode(
+                new BinaryBitmap(new HybridBinarizer(new RGBLuminanceSource(size, size, pixels))), hints).getText();
+    }
+}
@@ -0,0 +1,58 @@
+package com.adamsnub.upilib.qr;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class QrPngWriterTest {
+
+    @Test
+    public void pixelsMatchTheModules() throws Exception {
+        QrModuleMatrix matrix = QrModuleMatrix.encode("upi://pay?pa=shop@okaxis&pn=Shop&am=10.00&tr=ORD1");
+        try (QrPngWriter writer = new QrPngWriter()) {
+            for (int modulePx : new int[] {1, 3, 8}) {
+                assertImage(matrix, modulePx, writer.toByteArray(matrix, modulePx));
+            }
+        }
+    }
+
+    @Test
+    public void reusedWriterHandlesSmallerAndLargerCodes() throws Exception {
+        QrModuleMatrix large = QrModuleMatrix.encode("upi://pay?pa=merchant.store@okaxis&pn=Corner%20Store"
+                + "&am=1249.50&tr=ORD-5962626691&cu=INR&tn=Table%204%20-%202x%20coffee%2C%201x%20sandwich");
+        QrModuleMatrix small = QrModuleMatrix.encode("upi://pay?pa=a@b");
+        try (QrPngWriter writer = new QrPngWriter()) {
+            assertImage(large, 5, writer.toByteArray(large, 5));
+            assertImage(small, 5, writer.toByteArray(small, 5));
+            assertImage(large, 2, writer.toByteArray(large, 2));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveModuleSize() throws Exception {
+        try (QrPngWriter writer = new QrPngWriter()) {
+            writer.toByteArray(QrModuleMatrix.encode("upi://pay?pa=a@b"), 0);
+        }
+    }
+
+    static void assertImage(QrModuleMatrix matrix, int modulePx, byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(image);
+        int size = matrix.getSize() * modulePx;
+        assertEquals(size, image.getWidth());
+        assertEquals(size, image.getHeight());
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int expected = matrix.get(x / modulePx, y / modulePx) ? 0x000000 : 0xFFFFFF;
+                assertEquals(x + "," + y, expected, image.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+}
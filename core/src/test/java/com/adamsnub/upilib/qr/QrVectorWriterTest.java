@@ -0,0 +1,181 @@
+package com.adamsnub.upilib.qr;
+
+import com.google.zxing.common.BitMatrix;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QrVectorWriterTest {
+
+    @Test
+    public void rectanglesCoverExactlyTheDarkModules() throws Exception {
+        assertCoversExactly(QrModuleMatrix.encode("upi://pay?pa=shop@okaxis&pn=Shop&am=10.00&tr=ORD1&cu=INR"));
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            assertCoversExactly(randomMatrix(random, 1 + random.nextInt(40)));
+        }
+    }
+
+    @Test
+    public void solidBlockIsOneRectangle() throws IOException {
+        BitMatrix bits = new BitMatrix(10);
+        bits.setRegion(2, 3, 5, 4);
+        final int[] count = new int[1];
+        final int[] rect = new int[4];
+        QrVectorWriter.forEachRectangle(QrModuleMatrix.fromBitMatrix(bits), new QrVectorWriter.RectangleSink() {
+            @Override
+            public void rectangle(int x, int y, int width, int height) {
+                count[0]++;
+                rect[0] = x;
+                rect[1] = y;
+                rect[2] = width;
+                rect[3] = height;
+            }
+        });
+        assertEquals(1, count[0]);
+        assertEquals(2, rect[0]);
+        assertEquals(3, rect[1]);
+        assertEquals(5, rect[2]);
+        assertEquals(4, rect[3]);
+    }
+
+    @Test
+    public void mergesFinderPatterns() throws Exception {
+        QrModuleMatrix matrix = QrModuleMatrix.encode("upi://pay?pa=shop@okaxis&pn=Shop");
+        int dark = 0;
+        for (int y = 0; y < matrix.getSize(); y++) {
+            for (int x = 0; x < matrix.getSize(); x++) {
+                if (matrix.get(x, y)) dark++;
+            }
+        }
+        final int[] count = new int[1];
+        QrVectorWriter.forEachRectangle(matrix, new QrVectorWriter.RectangleSink() {
+            @Override
+            public void rectangle(int x, int y, int width, int height) {
+                count[0]++;
+            }
+        });
+        assertTrue(count[0] + " rectangles for " + dark + " modules", count[0] < dark / 2);
+    }
+
+    @Test
+    public void svgPathRedrawsTheMatrix() throws Exception {
+        QrModuleMatrix matrix = QrModuleMatrix.encode("upi://pay?pa=merchant.store@okaxis&pn=Corner%20Store");
+        StringWriter svg = new StringWriter();
+        QrVectorWriter.writeSvg(matrix, 25.5, svg);
+        String text = svg.toString();
+
+        int size = matrix.getSize();
+        assertTrue(text, text.contains("width=\"25.500000mm\" height=\"25.500000mm\""));
+        assertTrue(text, text.contains("viewBox=\"0 0 " + size + " " + size + "\""));
+
+        boolean[] drawn = new boolean[size * size];
+        Matcher m = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v(\\d+)h-(\\d+)z").matcher(text);
+        while (m.find()) {
+            int x = Integer.parseInt(m.group(1));
+            int y = Integer.parseInt(m.group(2));
+            int width = Integer.parseInt(m.group(3));
+            int height = Integer.parseInt(m.group(4));
+            assertEquals(width, Integer.parseInt(m.group(5)));
+            fill(drawn, size, x, y, width, height);
+        }
+        assertMatches(matrix, drawn);
+    }
+
+    @Test
+    public void pdfHasConsistentOffsetsAndRedrawsTheMatrix() throws Exception {
+        QrModuleMatrix matrix = QrModuleMatrix.encode("upi://pay?pa=shop@okaxis&pn=Shop&am=1.00");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        QrVectorWriter.writePdf(matrix, 144, out);
+        String pdf = new String(out.toByteArray(), StandardCharsets.US_ASCII);
+
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("/MediaBox [0 0 144 144]"));
+
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(pdf);
+        assertTrue(startxref.find());
+        int xref = Integer.parseInt(startxref.group(1));
+        assertTrue(pdf.startsWith("xref\n", xref));
+
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(pdf.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            int offset = Integer.parseInt(entries.group(1));
+            assertTrue("object " + object, pdf.startsWith(object + " 0 obj\n", offset));
+            object++;
+        }
+        assertEquals(5, object);
+
+        Matcher length = Pattern.compile("/Length (\\d+) >>\nstream\n").matcher(pdf);
+        assertTrue(length.find());
+        int streamStart = length.end();
+        String stream = pdf.substring(streamStart, streamStart + Integer.parseInt(length.group(1)));
+        assertTrue(pdf.startsWith("endstream", streamStart + stream.length()));
+
+        int size = matrix.getSize();
+        boolean[] drawn = new boolean[size * size];
+        Matcher rects = Pattern.compile("(?m)^(\\d+) (\\d+) (\\d+) (\\d+) re$").matcher(stream);
+        while (rects.find()) {
+            fill(drawn, size, Integer.parseInt(rects.group(1)), Integer.parseInt(rects.group(2)),
+                    Integer.parseInt(rects.group(3)), Integer.parseInt(rects.group(4)));
+        }
+        assertMatches(matrix, drawn);
+    }
+
+    private static void assertCoversExactly(QrModuleMatrix matrix) throws IOException {
+        final int size = matrix.getSize();
+        final boolean[] drawn = new boolean[size * size];
+        QrVectorWriter.forEachRectangle(matrix, new QrVectorWriter.RectangleSink() {
+            @Override
+            public void rectangle(int x, int y, int width, int height) {
+                assertTrue(width > 0 && height > 0);
+                fill(drawn, size, x, y, width, height);
+            }
+        });
+        assertMatches(matrix, drawn);
+    }
+
+    /**
+     * Mark a rectangle, failing if it overlaps one drawn before
+     */
+    private static void fill(boolean[] drawn, int size, int x, int y, int width, int height) {
+        assertTrue(x + width <= size && y + height <= size);
+        for (int row = y; row < y + height; row++) {
+            for (int col = x; col < x + width; col++) {
+                assertFalse("overlap at " + col + "," + row, drawn[row * size + col]);
+                drawn[row * size + col] = true;
+            }
+        }
+    }
+
+    private static void assertMatches(QrModuleMatrix matrix, boolean[] drawn) {
+        int size = matrix.getSize();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                assertEquals(x + "," + y, matrix.get(x, y), drawn[y * size + x]);
+            }
+        }
+    }
+
+    private static QrModuleMatrix randomMatrix(Random random, int size) {
+        BitMatrix bits = new BitMatrix(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) bits.set(x, y);
+            }
+        }
+        return QrModuleMatrix.fromBitMatrix(bits);
+    }
+}
@@ -0,0 +1,90 @@
+package com.adamsnub.upilib.utils;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import static org.junit.Assert.assertEquals;
+
+public class UpiStringEncoderTest {
+
+    private static final String[] NAMES = {
+            "Shop", "Corner Store & Cafe", "Café Ünïcode", "₹ Kirana #4", "a+b=c?d/e", "O'Brien (Ltd.)*!~",
+            "テスト", "emoji 😀 name", "100% pure", "tab\tand\nnewline"
+    };
+
+    private static final String[] NOTES = {
+            "", "Order 123", "Table #4 - 2x coffee, 1x sandwich", "50% off; paid @ counter", "नमस्ते"
+    };
+
+    @Test
+    public void matchesUriBuilderOutput() {
+        UpiStringEncoder encoder = new UpiStringEncoder();
+        for (String name : NAMES) {
+            for (String note : NOTES) {
+                PaymentRequest request = request(name, note, "INR");
+                assertEquals(expected(request, null), encoder.encode(request));
+                assertEquals(expected(request, "5411"), encoder.encode(request, "5411"));
+            }
+        }
+    }
+
+    @Test
+    public void writesCanonicalAmount() {
+        PaymentRequest request = new PaymentRequest.Builder()
+                .setPayeeVpa("shop@okaxis").setPayeeName("Shop").setAmount("99.5").setTransactionRef("ORD1").build();
+        assertEquals("upi://pay?pa=shop%40okaxis&pn=Shop&am=99.50&tr=ORD1&cu=INR&mode=05",
+                new UpiStringEncoder().encode(request));
+    }
+
+    private static PaymentRequest request(String name, String note, String currency) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa("merchant.store@okaxis")
+                .setPayeeName(name)
+                .setAmount("1249.50")
+                .setTransactionRef("ORD-5962626691")
+                .setTransactionNote(note)
+                .setCurrency(currency)
+                .build();
+    }
+
+    /**
+     * What android.net.Uri.Builder produced for the same parameters
+     */
+    private static String expected(PaymentRequest request, String merchantCode) {
+        StringBuilder out = new StringBuilder("upi://pay");
+        out.append("?pa=").append(uriEncode(request.getPayeeVpa()));
+        out.append("&pn=").append(uriEncode(request.getPayeeName()));
+        out.append("&am=").append(uriEncode(request.getAmount()));
+        out.append("&tr=").append(uriEncode(request.getTransactionRef()));
+        out.append("&cu=").append(uriEncode(request.getCurrency()));
+        out.append("&mode=05");
+        if (merchantCode != null) {
+            out.append("&mc=").append(uriEncode(merchantCode));
+        }
+        if (!request.getTransactionNote().isEmpty()) {
+            out.append("&tn=").append(uriEncode(request.getTransactionNote()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Uri.encode: UTF-8 percent-encoding that leaves letters, digits and _-!.~'()* alone
+     */
+    private static String uriEncode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8")
+                    .replace("+", "%20")
+                    .replace("%21", "!")
+                    .replace("%27", "'")
+                    .replace("%28", "(")
+                    .replace("%29", ")")
+                    .replace("%7E", "~");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
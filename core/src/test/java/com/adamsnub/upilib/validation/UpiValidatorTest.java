@@ -0,0 +1,85 @@
+package com.adamsnub.upilib.validation;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UpiValidatorTest {
+
+    @Test
+    public void acceptsWellFormedVpas() {
+        String[] valid = {"shop@okaxis", "merchant.store@ybl", "a_b-c.9@paytm", "9876543210@upi", "x@y"};
+        for (String vpa : valid) {
+            assertTrue(vpa, UpiValidator.isValidVpa(vpa));
+        }
+    }
+
+    @Test
+    public void rejectsMalformedVpas() {
+        String[] invalid = {null, "", "shop", "@okaxis", "shop@", "a@b@c", "sh op@okaxis", "shop@ok.axis",
+                "shop@ok axis", "shöp@okaxis", "shop@@okaxis"};
+        for (String vpa : invalid) {
+            assertFalse(String.valueOf(vpa), UpiValidator.isValidVpa(vpa));
+        }
+    }
+
+    @Test
+    public void validateReportsFirstProblemInOrder() {
+        assertEquals(ValidationResult.VALID, UpiValidator.validate("shop@okaxis", "Shop", "149.00", "ORD1"));
+        assertEquals(ValidationResult.MISSING_VPA, UpiValidator.validate(" ", "", "", ""));
+        assertEquals(ValidationResult.INVALID_VPA, UpiValidator.validate("shop", "", "", ""));
+        assertEquals(ValidationResult.MISSING_PAYEE_NAME, UpiValidator.validate("shop@okaxis", "", "", ""));
+        assertEquals(ValidationResult.MISSING_AMOUNT, UpiValidator.validate("shop@okaxis", "Shop", null, ""));
+        assertEquals(ValidationResult.INVALID_AMOUNT, UpiValidator.validate("shop@okaxis", "Shop", "1.234", ""));
+        assertEquals(ValidationResult.MISSING_TRANSACTION_REF,
+                UpiValidator.validate("shop@okaxis", "Shop", "1", "\t"));
+    }
+
+    @Test
+    public void validateAllReportsEachBuilder() {
+        PaymentRequest.Builder[] builders = {
+                builder("shop@okaxis", "10"), builder("not-a-vpa", "10"), builder("other@ybl", "1.234"),
+                builder("a@b@c", "10"), builder("last@upi", "0.50")
+        };
+        ValidationResult[] results = new ValidationResult[builders.length];
+        assertEquals(3, UpiValidator.validateAll(builders, results));
+        assertArrayEquals(new ValidationResult[] {
+                ValidationResult.VALID, ValidationResult.INVALID_VPA, ValidationResult.INVALID_AMOUNT,
+                ValidationResult.INVALID_VPA, ValidationResult.VALID
+        }, results);
+        assertArrayEquals(results, UpiValidator.validateAll(builders));
+    }
+
+    @Test
+    public void buildAppliesTheSameRulesAsValidate() {
+        PaymentRequest.Builder[] builders = {
+                builder("shop@okaxis", "10"), builder("shop", "10"), builder("shop@ok.axis", "10"),
+                builder("shop@okaxis", "1.234"), builder("shop@okaxis", "-5"), builder(" ", "10"),
+                builder("shop@okaxis", null), new PaymentRequest.Builder().setPayeeVpa("shop@okaxis")
+        };
+        for (PaymentRequest.Builder builder : builders) {
+            ValidationResult result = builder.validate();
+            try {
+                PaymentRequest request = builder.build();
+                assertEquals(ValidationResult.VALID, result);
+                assertEquals(ValidationResult.VALID, UpiValidator.validate(request));
+            } catch (IllegalStateException e) {
+                assertFalse(result.isValid());
+                assertEquals(result.getMessage(), e.getMessage());
+            }
+        }
+    }
+
+    private static PaymentRequest.Builder builder(String vpa, String amount) {
+        return new PaymentRequest.Builder()
+                .setPayeeVpa(vpa)
+                .setPayeeName("Shop")
+                .setAmount(amount)
+                .setTransactionRef("ORD1");
+    }
+}
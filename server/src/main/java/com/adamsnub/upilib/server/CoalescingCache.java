@@ -0,0 +1,101 @@
+package com.adamsnub.upilib.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-bounded LRU of rendered responses that also coalesces concurrent
+ * requests: while one caller renders a key, everyone else asking for it waits
+ * on the same future instead of rendering again.
+ */
+final class CoalescingCache {
+    private final long maxBytes;
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    // Guarded by this
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    CoalescingCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    byte[] get(String key, Callable<byte[]> loader) throws Exception {
+        byte[] cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        misses.incrementAndGet();
+        try {
+            byte[] value = loader.call();
+            store(key, value);
+            created.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // Errors too, or waiters coalesced onto this render would block forever
+            created.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Requests that waited on another request's render instead of rendering
+     */
+    long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private synchronized byte[] lookup(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(String key, byte[] value) {
+        if (value.length > maxBytes) return;
+        byte[] previous = entries.put(key, value);
+        bytes += value.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.adamsnub.upilib.server;
+
+import com.adamsnub.upilib.models.PaymentRequest;
+import com.adamsnub.upilib.qr.QrModuleMatrix;
+import com.adamsnub.upilib.qr.QrPngWriter;
+import com.adamsnub.upilib.qr.QrVectorWriter;
+import com.adamsnub.upilib.utils.UpiStringEncoder;
+import com.google.zxing.WriterException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP service that turns payment parameters into UPI strings and QR
+ * codes, for POS backends that cannot run the Android library.
+ *
+ * Binds to the loopback interface only and handles every request on its own
+ * virtual thread. Rendered responses are cached by canonical UPI string and
+ * output parameters, and identical requests arriving together share a single
+ * render.
+ *
+ * <pre>
+ * GET /upi?pa=shop@okaxis&amp;pn=Shop&amp;am=149.00&amp;tr=ORD1[&amp;tn=..][&amp;cu=INR][&amp;mc=5411]
+ * GET /qr.png?...same...[&amp;scale=8]     modules drawn scale x scale pixels
+ * GET /qr.svg?...same...[&amp;mm=40]       printed size in millimetres
+ * </pre>
+ */
+public final class UpiQrServer {
+    private static final Logger LOG = Logger.getLogger(UpiQrServer.class.getName());
+
+    public static final int DEFAULT_PORT = 8765;
+    private static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_SCALE = 8;
+    private static final int MAX_SCALE = 32;
+    private static final double DEFAULT_SIZE_MM = 40;
+    private static final double MAX_SIZE_MM = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CoalescingCache cache;
+
+    private UpiQrServer(HttpServer server, ExecutorService executor, long cacheBytes) {
+        this.server = server;
+        this.executor = executor;
+        this.cache = new CoalescingCache(cacheBytes);
+    }
+
+    /**
+     * Start on 127.0.0.1:port; port 0 picks a free port, see {@link #getPort()}
+     */
+    public static UpiQrServer start(int port) throws IOException {
+        return start(port, DEFAULT_CACHE_BYTES);
+    }
+
+    public static UpiQrServer start(int port, long cacheBytes) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+
+        UpiQrServer upiServer = new UpiQrServer(httpServer, executor, cacheBytes);
+        httpServer.createContext("/upi", upiServer.handler(upiServer::renderUpiString));
+        httpServer.createContext("/qr.png", upiServer.handler(upiServer::renderPng));
+        httpServer.createContext("/qr.svg", upiServer.handler(upiServer::renderSvg));
+        httpServer.start();
+        LOG.info("UPI QR server listening on " + httpServer.getAddress());
+        return upiServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Requests answered by waiting on an identical in-flight render
+     */
+    public long getCoalescedRequests() {
+        return cache.getCoalesced();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        start(port);
+    }
+
+    /**
+     * Renders the response body for one parsed request
+     */
+    private interface Renderer {
+        Rendered render(PaymentRequest request, String merchantCode, Map<String, String> params) throws Exception;
+    }
+
+    private static final class Rendered {
+        final String cacheKey;
+        final String contentType;
+        final RenderTask task;
+
+        Rendered(String cacheKey, String contentType, RenderTask task) {
+            this.cacheKey = cacheKey;
+            this.contentType = contentType;
+            this.task = task;
+        }
+    }
+
+    private interface RenderTask {
+        byte[] render() throws Exception;
+    }
+
+    private HttpHandler handler(Renderer renderer) {
+        return exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    send(exchange, 405, "text/plain; charset=utf-8", "Only GET is supported\n");
+                    return;
+                }
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                PaymentRequest request = toPaymentRequest(params);
+                Rendered rendered = renderer.render(request, params.get("mc"), params);
+                byte[] body = cache.get(rendered.cacheKey, rendered.task::render);
+                exchange.getResponseHeaders().set("Cache-Control", "private, max-age=300");
+                send(exchange, 200, rendered.contentType, body);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                send(exchange, 400, "text/plain; charset=utf-8", e.getMessage() + "\n");
+            } catch (WriterException e) {
+                // The payment details are too long for any QR version
+                send(exchange, 400, "text/plain; charset=utf-8", "Payment details do not fit in a QR code\n");
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Failed to render " + exchange.getRequestURI(), e);
+                send(exchange, 500, "text/plain; charset=utf-8", "Render failed\n");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private Rendered renderUpiString(PaymentRequest request, String merchantCode, Map<String, String> params) {
+        final String upiString = new UpiStringEncoder().encode(request, merchantCode);
+        return new Rendered("upi:" + upiString, "text/plain; charset=utf-8",
+                () -> upiString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Rendered renderPng(PaymentRequest request, String merchantCode, Map<String, String> params) {
+        final String upiString = new UpiStringEncoder().encode(request, merchantCode);
+        final int scale = intParam(params, "scale", DEFAULT_SCALE, 1, MAX_SCALE);
+        return new Rendered("png:" + scale + ":" + upiString, "image/png", () -> {
+            QrModuleMatrix matrix = QrModuleMatrix.encode(upiString);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+            try (QrPngWriter writer = new QrPngWriter()) {
+                writer.write(matrix, scale, out);
+            }
+            return out.toByteArray();
+        });
+    }
+
+    private Rendered renderSvg(PaymentRequest request, String merchantCode, Map<String, String> params) {
+        final String upiString = new UpiStringEncoder().encode(request, merchantCode);
+        final double sizeMm = doubleParam(params, "mm", DEFAULT_SIZE_MM, MAX_SIZE_MM);
+        return new Rendered("svg:" + sizeMm + ":" + upiString, "image/svg+xml", () -> {
+            QrModuleMatrix matrix = QrModuleMatrix.encode(upiString);
+            StringWriter out = new StringWriter(4096);
+            QrVectorWriter.writeSvg(matrix, sizeMm, out);
+            return out.toString().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * @throws IllegalStateException with the validator's message if a field is missing or malformed
+     */
+    private static PaymentRequest toPaymentRequest(Map<String, String> params) {
+        PaymentRequest.Builder builder = new PaymentRequest.Builder()
+                .setPayeeVpa(params.get("pa"))
+                .setPayeeName(params.get("pn"))
+                .setAmount(params.get("am"))
+                .setTransactionRef(params.get("tr"));
+        if (params.containsKey("tn")) builder.setTransactionNote(params.get("tn"));
+        if (params.containsKey("cu")) builder.setCurrency(params.get("cu"));
+        return builder.build();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue, int min, int max) {
+        String value = params.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) return parsed;
+        } catch (NumberFormatException ignored) {
+            // Fall through
+        }
+        throw new IllegalArgumentException(name + " must be an integer between " + min + " and " + max);
+    }
+
+    private static double doubleParam(Map<String, String> params, String name, double defaultValue, double max) {
+        String value = params.get(name);
+        if (value == null) return defaultValue;
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed > 0 && parsed <= max) return parsed;
+        } catch (NumberFormatException ignored) {
+            // Fall through
+        }
+        throw new IllegalArgumentException(name + " must be a number between 0 and " + max);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        send(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.adamsnub.upilib.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CoalescingCacheTest {
+
+    @Test
+    public void concurrentRequestsShareOneRender() throws Exception {
+        final int callers = 16;
+        final CoalescingCache cache = new CoalescingCache(1024);
+        final CountDownLatch release = new CountDownLatch(1);
+        final byte[] rendered = {1, 2, 3};
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("k", () -> {
+                release.await();
+                return rendered;
+            })));
+            awaitCount(cache::getMisses, 1);
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("k", () -> {
+                    throw new AssertionError("Rendered twice");
+                })));
+            }
+            awaitCount(cache::getCoalesced, callers - 1);
+            release.countDown();
+
+            for (Future<byte[]> result : results) {
+                assertSame(rendered, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, cache.getMisses());
+            assertEquals(callers - 1, cache.getCoalesced());
+            assertArrayEquals(rendered, cache.get("k", () -> null));
+            assertEquals(1, cache.getHits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void errorsReachCoalescedWaiters() throws Exception {
+        final CoalescingCache cache = new CoalescingCache(1024);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> owner = executor.submit(() -> cache.get("k", () -> {
+                release.await();
+                throw new StackOverflowError("render");
+            }));
+            awaitCount(cache::getMisses, 1);
+            Future<byte[]> waiter = executor.submit(() -> cache.get("k", () -> new byte[0]));
+            awaitCount(cache::getCoalesced, 1);
+            release.countDown();
+
+            assertThrowsError(owner);
+            assertThrowsError(waiter);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondByteLimit() throws Exception {
+        CoalescingCache cache = new CoalescingCache(10);
+        cache.get("a", () -> new byte[4]);
+        cache.get("b", () -> new byte[4]);
+        cache.get("a", () -> new byte[4]);
+        cache.get("c", () -> new byte[4]);
+        assertEquals(1, cache.getHits());
+
+        cache.get("a", () -> new byte[4]);
+        assertEquals(2, cache.getHits());
+        cache.get("b", () -> new byte[4]);
+        assertEquals(4, cache.getMisses());
+    }
+
+    private static void assertThrowsError(Future<byte[]> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the render's error");
+        } catch (ExecutionException e) {
+            assertEquals(StackOverflowError.class, e.getCause().getClass());
+        }
+    }
+
+    private interface Counter {
+        long get();
+    }
+
+    private static void awaitCount(Counter counter, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.get() < expected) {
+            if (System.nanoTime() > deadline) {
+                fail("Counter stuck at " + counter.get() + ", expected " + expected);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
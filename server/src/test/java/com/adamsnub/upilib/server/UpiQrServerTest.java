@@ -0,0 +1,180 @@
+package com.adamsnub.upilib.server;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UpiQrServerTest {
+
+    private static final String QUERY = "pa=shop%40okaxis&pn=Corner%20Store&am=149&tr=ORD1&tn=Table%20%234";
+
+    private UpiQrServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = UpiQrServer.start(0, 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void returnsCanonicalUpiString() throws IOException {
+        Response response = get("/upi?" + QUERY);
+        assertEquals(200, response.status);
+        assertEquals("upi://pay?pa=shop%40okaxis&pn=Corner%20Store&am=149.00&tr=ORD1&cu=INR&mode=05&tn=Table%20%234",
+                response.text());
+    }
+
+    @Test
+    public void pngDecodesToTheUpiString() throws Exception {
+        String upiString = get("/upi?" + QUERY).text();
+        Response png = get("/qr.png?" + QUERY + "&scale=4");
+        assertEquals(200, png.status);
+        assertEquals("image/png", png.contentType);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png.body));
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new RGBLuminanceSource(width, height, pixels)));
+        assertEquals(upiString, new QRCodeReader().decode(bitmap).getText());
+    }
+
+    @Test
+    public void svgIsServed() throws IOException {
+        Response svg = get("/qr.svg?" + QUERY + "&mm=30");
+        assertEquals(200, svg.status);
+        assertEquals("image/svg+xml", svg.contentType);
+        assertTrue(svg.text().contains("<svg"));
+    }
+
+    @Test
+    public void rejectsBadRequests() throws IOException {
+        assertEquals(400, get("/upi?pa=not-a-vpa&pn=Shop&am=1&tr=ORD1").status);
+        assertEquals(400, get("/upi?pa=shop%40okaxis&pn=Shop&am=1.234&tr=ORD1").status);
+        assertEquals(400, get("/upi?pa=shop%40okaxis&am=1&tr=ORD1").status);
+        assertEquals(400, get("/qr.png?" + QUERY + "&scale=0").status);
+        assertEquals(400, get("/qr.svg?" + QUERY + "&mm=abc").status);
+
+        StringBuilder longNote = new StringBuilder();
+        for (int i = 0; i < 3000; i++) longNote.append("%E2%82%B9");
+        assertEquals(400, get("/qr.png?" + QUERY + longNote).status);
+
+        HttpURLConnection post = (HttpURLConnection) url("/upi?" + QUERY).openConnection();
+        post.setRequestMethod("POST");
+        assertEquals(405, post.getResponseCode());
+        post.disconnect();
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsRenderOnce() throws Exception {
+        final int requests = 64;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(clients.submit(new Callable<Response>() {
+                    @Override
+                    public Response call() throws Exception {
+                        start.await();
+                        return get("/qr.png?" + QUERY + "&scale=16");
+                    }
+                }));
+            }
+            start.countDown();
+
+            byte[] first = null;
+            for (Future<Response> future : responses) {
+                Response response = future.get();
+                assertEquals(200, response.status);
+                if (first == null) first = response.body;
+                assertArrayEquals(first, response.body);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // Every request was a render, a wait on a render or a cache hit, and most did not render
+        long misses = server.getCacheMisses();
+        assertEquals(requests, misses + server.getCoalescedRequests() + server.getCacheHits());
+        assertTrue("misses " + misses, misses < requests / 2);
+
+        long hits = server.getCacheHits();
+        assertEquals(200, get("/qr.png?" + QUERY + "&scale=16").status);
+        assertEquals(hits + 1, server.getCacheHits());
+        assertEquals(misses, server.getCacheMisses());
+    }
+
+    private URL url(String path) throws IOException {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path).toURL();
+    }
+
+    private Response get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url(path).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if (in != null) {
+                try (InputStream stream = in) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = stream.read(buffer)) > 0) {
+                        body.write(buffer, 0, read);
+                    }
+                }
+            }
+            return new Response(status, connection.getContentType(), body.toByteArray());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}